@@ -56,6 +56,7 @@
 import com.griefdefender.api.permission.option.type.CreateModeTypes;
 import com.griefdefender.cache.EventResultCache;
 import com.griefdefender.cache.MessageCache;
+import com.griefdefender.cache.PermissionDecisionCache;
 import com.griefdefender.cache.PermissionHolderCache;
 import com.griefdefender.claim.GDClaim;
 import com.griefdefender.configuration.GriefDefenderConfig;
@@ -115,6 +116,7 @@ public class GDPlayerData implements PlayerData {
     public boolean ignoreActiveContexts = true;
 
     public EventResultCache eventResultCache;
+    public final PermissionDecisionCache decisionCache = new PermissionDecisionCache();
 
     // collide event cache
     public int lastCollideEntityId = 0;
@@ -732,6 +734,7 @@ public boolean isWaitingForInput() {
     public void onClaimDelete() {
         this.lastShovelLocation = null;
         this.eventResultCache = null;
+        this.decisionCache.clear();
         this.claimResizing = null;
         this.claimSubdividing = null;
     }
@@ -741,6 +744,7 @@ public void onDisconnect() {
         this.claimMode = false;
         this.lastShovelLocation = null;
         this.eventResultCache = null;
+        this.decisionCache.clear();
         this.claimResizing = null;
         this.claimSubdividing = null;
         this.visualClaimId = null;
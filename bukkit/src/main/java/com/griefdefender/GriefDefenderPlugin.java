@@ -42,7 +42,6 @@
 
 import com.griefdefender.provider.permissionsex.PermissionsExProvider;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.LocaleUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
@@ -210,6 +209,7 @@
 import com.griefdefender.storage.FileStorage;
 import com.griefdefender.task.ClaimBlockTask;
 import com.griefdefender.task.ClaimCleanupTask;
+import com.griefdefender.task.EntityCounterTask;
 import com.griefdefender.task.PlayerTickTask;
 import com.griefdefender.util.PermissionUtil;
 
@@ -491,7 +491,9 @@ public void onEnable() {
         Bukkit.getPluginManager().registerEvents(new BlockEventTracker(), GDBootstrap.getInstance());
         Bukkit.getPluginManager().registerEvents(new CommandEventHandler(dataStore), GDBootstrap.getInstance());
         Bukkit.getPluginManager().registerEvents(new PlayerEventHandler(dataStore), GDBootstrap.getInstance());
-        Bukkit.getPluginManager().registerEvents(new EntityEventHandler(dataStore), GDBootstrap.getInstance());
+        final EntityEventHandler entityEventHandler = new EntityEventHandler(dataStore);
+        Bukkit.getPluginManager().registerEvents(entityEventHandler, GDBootstrap.getInstance());
+        entityEventHandler.registerEntityRemoveEvent();
         Bukkit.getPluginManager().registerEvents(new WorldEventHandler(), GDBootstrap.getInstance());
         Bukkit.getPluginManager().registerEvents(new NMSUtil(), GDBootstrap.getInstance());
 
@@ -555,6 +557,7 @@ public void onEnable() {
         }
 
         new ClaimBlockTask();
+        new EntityCounterTask();
         new PlayerTickTask();
         registerBaseCommands();
         this.getLogger().info("Loaded successfully.");
@@ -866,7 +869,8 @@ public void loadConfig() {
             BaseStorage.globalConfig.save();
             BaseStorage.USE_GLOBAL_PLAYER_STORAGE = !BaseStorage.globalConfig.getConfig().playerdata.useWorldPlayerData();
             GDFlags.populateFlagStatus();
-            PermissionHolderCache.getInstance().getOrCreatePermissionCache(GriefDefenderPlugin.DEFAULT_HOLDER).invalidateAll();
+            PermissionHolderCache.getInstance().invalidatePermissionCache(GriefDefenderPlugin.DEFAULT_HOLDER);
+            PermissionHolderCache.getInstance().invalidateAllOptionCache();
             CLAIM_BLOCK_SYSTEM = BaseStorage.globalConfig.getConfig().playerdata.claimBlockSystem;
             final GDBlockType defaultCreateVisualBlock = BlockTypeRegistryModule.getInstance().getById("minecraft:diamond_block").orElse(null);
             this.createVisualBlock = BlockTypeRegistryModule.getInstance().getById(BaseStorage.globalConfig.getConfig().visual.claimCreateStartBlock).orElse(defaultCreateVisualBlock);
@@ -996,9 +1000,10 @@ public static GDPermissionUser getOrCreateUser(UUID uuid) {
     }
 
     public static boolean isSourceIdBlacklisted(String flag, Object source, UUID worldUniqueId) {
-        final List<String> flagList = GriefDefenderPlugin.getGlobalConfig().getConfig().blacklist.flagIdBlacklist.get(flag);
+        final BlacklistCategory globalBlacklist = GriefDefenderPlugin.getGlobalConfig().getConfig().blacklist;
+        final List<String> flagList = globalBlacklist.flagIdBlacklist.get(flag);
         final boolean checkFlag = flagList != null && !flagList.isEmpty();
-        final boolean checkGlobal = !GriefDefenderPlugin.getGlobalConfig().getConfig().blacklist.globalSourceBlacklist.isEmpty();
+        final boolean checkGlobal = !globalBlacklist.globalSourceBlacklist.isEmpty();
         if (!checkFlag && !checkGlobal) {
             return false;
         }
@@ -1008,40 +1013,22 @@ public static boolean isSourceIdBlacklisted(String flag, Object source, UUID wor
         final String idNoMeta = GDPermissionManager.getInstance().getIdentifierWithoutMeta(id);
 
         // Check global
-        if (checkGlobal) {
-            final BlacklistCategory blacklistCategory = activeConfig.getConfig().blacklist;
-            final List<String> globalSourceBlacklist = blacklistCategory.getGlobalSourceBlacklist();
-            if (globalSourceBlacklist == null) {
-                return false;
-            }
-            for (String str : globalSourceBlacklist) {
-                if (FilenameUtils.wildcardMatch(id, str)) {
-                    return true;
-                }
-                if (FilenameUtils.wildcardMatch(idNoMeta, str)) {
-                    return true;
-                }
-            }
+        if (checkGlobal && activeConfig.getConfig().blacklist.isGlobalSourceBlacklisted(id, idNoMeta)) {
+            return true;
         }
         // Check flag
-        if (checkFlag) {
-            for (String str : flagList) {
-                if (FilenameUtils.wildcardMatch(id, str)) {
-                    return true;
-                }
-                if (FilenameUtils.wildcardMatch(idNoMeta, str)) {
-                    return true;
-                }
-            }
+        if (checkFlag && globalBlacklist.isFlagBlacklisted(flag, id, idNoMeta)) {
+            return true;
         }
 
         return false;
     }
 
     public static boolean isTargetIdBlacklisted(String flag, Object target, UUID worldUniqueId) {
-        final List<String> flagList = GriefDefenderPlugin.getGlobalConfig().getConfig().blacklist.flagIdBlacklist.get(flag);
+        final BlacklistCategory globalBlacklist = GriefDefenderPlugin.getGlobalConfig().getConfig().blacklist;
+        final List<String> flagList = globalBlacklist.flagIdBlacklist.get(flag);
         final boolean checkFlag = flagList != null && !flagList.isEmpty();
-        final boolean checkGlobal = !GriefDefenderPlugin.getGlobalConfig().getConfig().blacklist.globalTargetBlacklist.isEmpty();
+        final boolean checkGlobal = !globalBlacklist.globalTargetBlacklist.isEmpty();
         if (!checkFlag && !checkGlobal) {
             return false;
         }
@@ -1051,31 +1038,12 @@ public static boolean isTargetIdBlacklisted(String flag, Object target, UUID wor
         final String idNoMeta = GDPermissionManager.getInstance().getIdentifierWithoutMeta(id);
 
         // Check global
-        if (checkGlobal) {
-            final BlacklistCategory blacklistCategory = activeConfig.getConfig().blacklist;
-            final List<String> globalTargetBlacklist = blacklistCategory.getGlobalTargetBlacklist();
-            if (globalTargetBlacklist == null) {
-                return false;
-            }
-            for (String str : globalTargetBlacklist) {
-                if (FilenameUtils.wildcardMatch(id, str)) {
-                    return true;
-                }
-                if (FilenameUtils.wildcardMatch(idNoMeta, str)) {
-                    return true;
-                }
-            }
+        if (checkGlobal && activeConfig.getConfig().blacklist.isGlobalTargetBlacklisted(id, idNoMeta)) {
+            return true;
         }
         // Check flag
-        if (checkFlag) {
-            for (String str : flagList) {
-                if (FilenameUtils.wildcardMatch(id, str)) {
-                    return true;
-                }
-                if (FilenameUtils.wildcardMatch(idNoMeta, str)) {
-                    return true;
-                }
-            }
+        if (checkFlag && globalBlacklist.isFlagBlacklisted(flag, id, idNoMeta)) {
+            return true;
         }
 
         return false;
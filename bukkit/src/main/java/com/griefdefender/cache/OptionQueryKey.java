@@ -0,0 +1,119 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.cache;
+
+import java.util.Objects;
+import java.util.Set;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.reflect.TypeToken;
+import com.griefdefender.api.claim.Claim;
+import com.griefdefender.api.claim.ClaimType;
+import com.griefdefender.api.permission.Context;
+import com.griefdefender.api.permission.option.Option;
+import com.griefdefender.permission.GDPermissionHolder;
+
+/**
+ * Key of a cached option value.
+ *
+ * <p>Like {@link PermissionQueryKey}, lookup keys hold the contexts of the
+ * caller and only stored keys are copied.</p>
+ */
+public final class OptionQueryKey {
+
+    private final TypeToken<?> type;
+    private final GDPermissionHolder holder;
+    private final Option<?> option;
+    @Nullable private final Claim claim;
+    @Nullable private final ClaimType claimType;
+    private final Set<Context> contexts;
+    private final int hashCode;
+
+    OptionQueryKey(TypeToken<?> type, GDPermissionHolder holder, Option<?> option, @Nullable Claim claim, @Nullable ClaimType claimType, Set<Context> contexts) {
+        this.type = type;
+        this.holder = holder;
+        this.option = option;
+        this.claim = claim;
+        this.claimType = claimType;
+        this.contexts = contexts;
+        int hash = type.hashCode();
+        hash = 31 * hash + holder.hashCode();
+        hash = 31 * hash + option.hashCode();
+        hash = 31 * hash + Objects.hashCode(claim);
+        hash = 31 * hash + Objects.hashCode(claimType);
+        hash = 31 * hash + contexts.hashCode();
+        this.hashCode = hash;
+    }
+
+    private OptionQueryKey(TypeToken<?> type, GDPermissionHolder holder, Option<?> option, @Nullable Claim claim, @Nullable ClaimType claimType, Set<Context> contexts, int hashCode) {
+        this.type = type;
+        this.holder = holder;
+        this.option = option;
+        this.claim = claim;
+        this.claimType = claimType;
+        this.contexts = contexts;
+        this.hashCode = hashCode;
+    }
+
+    /**
+     * Gets a copy of this key that can be stored, must be called before the
+     * contexts of the query are modified.
+     *
+     * @return The key with interned immutable contexts
+     */
+    public OptionQueryKey immutableCopy() {
+        if (this.contexts instanceof ImmutableSet) {
+            return this;
+        }
+        return new OptionQueryKey(this.type, this.holder, this.option, this.claim, this.claimType,
+                PermissionHolderCache.getInstance().getOrCreateContextSet(this.contexts), this.hashCode);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof OptionQueryKey)) {
+            return false;
+        }
+
+        final OptionQueryKey other = (OptionQueryKey) obj;
+        return this.hashCode == other.hashCode
+                && this.type.equals(other.type)
+                && this.holder.equals(other.holder)
+                && this.option.equals(other.option)
+                && Objects.equals(this.claim, other.claim)
+                && Objects.equals(this.claimType, other.claimType)
+                && (this.contexts == other.contexts || this.contexts.equals(other.contexts));
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hashCode;
+    }
+}
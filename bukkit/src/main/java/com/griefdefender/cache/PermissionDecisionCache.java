@@ -0,0 +1,195 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.cache;
+
+import com.google.common.collect.ImmutableSet;
+import com.griefdefender.api.Tristate;
+import com.griefdefender.api.claim.Claim;
+import com.griefdefender.api.claim.TrustType;
+import com.griefdefender.api.permission.Context;
+import com.griefdefender.api.permission.flag.Flag;
+import com.griefdefender.internal.util.NMSUtil;
+import net.kyori.text.Component;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Final flag decisions made for a player during the current server tick.
+ *
+ * <p>Entries live in a small open addressed table. The whole table is dropped
+ * when the tick ends or when {@link #invalidateAll()} is called after a
+ * permission or claim data change.</p>
+ */
+public class PermissionDecisionCache {
+
+    private static final int SIZE = 16;
+    private static final AtomicInteger generation = new AtomicInteger();
+
+    private final DecisionKey[] keys = new DecisionKey[SIZE];
+    private final Tristate[] results = new Tristate[SIZE];
+    private final Component[] messages = new Component[SIZE];
+    private int tick = -1;
+    private int tableGeneration = -1;
+
+    /**
+     * Drops the decisions cached for all players.
+     */
+    public static void invalidateAll() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Gets the cached decision of a check.
+     *
+     * @param claim The claim
+     * @param flag The flag
+     * @param trustType The trust type checked, if any
+     * @param checkOverride Whether flag overrides are checked
+     * @param contexts All contexts of the check
+     * @return The decision, or null if not cached
+     */
+    @Nullable
+    public synchronized Decision get(Claim claim, Flag flag, @Nullable TrustType trustType, boolean checkOverride, Set<Context> contexts) {
+        if (!this.isCurrent()) {
+            return null;
+        }
+
+        final DecisionKey key = new DecisionKey(claim.getUniqueId(), flag, trustType, checkOverride, contexts);
+        int index = key.hash & (SIZE - 1);
+        for (int i = 0; i < SIZE; i++) {
+            final DecisionKey slotKey = this.keys[index];
+            if (slotKey == null) {
+                return null;
+            }
+            if (slotKey.equals(key)) {
+                return new Decision(this.results[index], this.messages[index]);
+            }
+            index = (index + 1) & (SIZE - 1);
+        }
+        return null;
+    }
+
+    public synchronized void put(Claim claim, Flag flag, @Nullable TrustType trustType, boolean checkOverride, Set<Context> contexts, Tristate result, @Nullable Component message) {
+        if (!this.isCurrent()) {
+            this.clear();
+        }
+
+        // Contexts may be modified by the caller after the check
+        final DecisionKey key = new DecisionKey(claim.getUniqueId(), flag, trustType, checkOverride, ImmutableSet.copyOf(contexts));
+        // If the table is full, the probe ends back at the home slot and replaces its entry
+        int index = key.hash & (SIZE - 1);
+        for (int i = 0; i < SIZE; i++) {
+            final DecisionKey slotKey = this.keys[index];
+            if (slotKey == null || slotKey.equals(key)) {
+                break;
+            }
+            index = (index + 1) & (SIZE - 1);
+        }
+
+        this.keys[index] = key;
+        this.results[index] = result;
+        this.messages[index] = message;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(this.keys, null);
+        Arrays.fill(this.results, null);
+        Arrays.fill(this.messages, null);
+        this.tick = NMSUtil.getInstance().getRunningServerTicks();
+        this.tableGeneration = generation.get();
+    }
+
+    private boolean isCurrent() {
+        return this.tick == NMSUtil.getInstance().getRunningServerTicks() && this.tableGeneration == generation.get();
+    }
+
+    public static class Decision {
+
+        private final Tristate result;
+        @Nullable private final Component message;
+
+        Decision(Tristate result, @Nullable Component message) {
+            this.result = result;
+            this.message = message;
+        }
+
+        public Tristate getResult() {
+            return this.result;
+        }
+
+        @Nullable
+        public Component getMessage() {
+            return this.message;
+        }
+    }
+
+    private static class DecisionKey {
+
+        private final UUID claimUniqueId;
+        private final Flag flag;
+        @Nullable private final TrustType trustType;
+        private final boolean checkOverride;
+        private final Set<Context> contexts;
+        private final int hash;
+
+        DecisionKey(UUID claimUniqueId, Flag flag, @Nullable TrustType trustType, boolean checkOverride, Set<Context> contexts) {
+            this.claimUniqueId = claimUniqueId;
+            this.flag = flag;
+            this.trustType = trustType;
+            this.checkOverride = checkOverride;
+            this.contexts = contexts;
+            final int hash = Objects.hash(claimUniqueId, flag, trustType, checkOverride, contexts);
+            // Spread high bits into the table index
+            this.hash = hash ^ (hash >>> 16);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof DecisionKey)) {
+                return false;
+            }
+            final DecisionKey other = (DecisionKey) o;
+            return this.hash == other.hash
+                    && this.checkOverride == other.checkOverride
+                    && this.flag == other.flag
+                    && this.trustType == other.trustType
+                    && this.claimUniqueId.equals(other.claimUniqueId)
+                    && this.contexts.equals(other.contexts);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
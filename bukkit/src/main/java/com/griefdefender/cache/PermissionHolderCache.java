@@ -27,7 +27,14 @@
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.griefdefender.GriefDefenderPlugin;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.reflect.TypeToken;
 import com.griefdefender.api.Tristate;
+import com.griefdefender.api.claim.Claim;
+import com.griefdefender.api.claim.ClaimType;
+import com.griefdefender.api.permission.Context;
+import com.griefdefender.api.permission.option.Option;
+import com.griefdefender.claim.GDClaim;
 import com.griefdefender.permission.GDPermissionGroup;
 import com.griefdefender.permission.GDPermissionHolder;
 import com.griefdefender.permission.GDPermissionUser;
@@ -36,9 +43,11 @@
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 public class PermissionHolderCache {
 
@@ -47,7 +56,13 @@ public class PermissionHolderCache {
             .build();
     private final Cache<String, GDPermissionGroup> groupCache = Caffeine.newBuilder().expireAfterAccess(10, TimeUnit.MINUTES)
             .build();
-    private final ConcurrentHashMap<GDPermissionHolder, Cache<Integer, Tristate>> permissionCache = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<GDPermissionHolder, Cache<PermissionQueryKey, Tristate>> permissionCache = new ConcurrentHashMap<>();
+    // Resolved option values, values from default holder are also cached under each user
+    private final ConcurrentHashMap<GDPermissionHolder, Cache<OptionQueryKey, Object>> optionCache = new ConcurrentHashMap<>();
+    private final LongAdder optionCacheHits = new LongAdder();
+    private final LongAdder optionCacheMisses = new LongAdder();
+    private final Cache<Set<Context>, Set<Context>> contextSetCache = Caffeine.newBuilder().maximumSize(10000).expireAfterAccess(10, TimeUnit.MINUTES)
+            .build();
 
     public GDPermissionUser getOrCreateUser(OfflinePlayer user) {
         if (user == null) {
@@ -68,14 +83,8 @@ public GDPermissionUser getOrCreateUser(UUID uuid) {
             return GriefDefenderPlugin.WORLD_USER;
         }
 
-        GDPermissionUser holder = this.userCache.getIfPresent(uuid);
-        if (holder != null) {
-            return holder;
-        }
-
-        holder = new GDPermissionUser(uuid);
-        this.userCache.put(uuid, holder);
-        return holder;
+        // Created atomically as per holder caches are keyed by holder instance
+        return this.userCache.get(uuid, GDPermissionUser::new);
     }
 
     public GDPermissionUser getOrCreateUser(String username) {
@@ -96,14 +105,7 @@ public GDPermissionGroup getOrCreateGroup(String groupName) {
         if (groupName == null) {
             return null;
         }
-        GDPermissionGroup holder = this.groupCache.getIfPresent(groupName);
-        if (holder != null) {
-            return holder;
-        }
-
-        holder = new GDPermissionGroup(groupName);
-        this.groupCache.put(groupName, holder);
-        return holder;
+        return this.groupCache.get(groupName, GDPermissionGroup::new);
     }
 
     public GDPermissionHolder getOrCreateHolder(String identifier) {
@@ -120,21 +122,96 @@ public GDPermissionHolder getOrCreateHolder(String identifier) {
         return this.getOrCreateUser(uuid);
     }
 
-    public Cache<Integer, Tristate> getOrCreatePermissionCache(GDPermissionHolder holder) {
-        Cache<Integer, Tristate> cache = this.permissionCache.get(holder);
+    public Cache<PermissionQueryKey, Tristate> getOrCreatePermissionCache(GDPermissionHolder holder) {
+        Cache<PermissionQueryKey, Tristate> cache = this.permissionCache.get(holder);
         if (cache == null) {
-            cache = Caffeine.newBuilder().expireAfterAccess(10, TimeUnit.MINUTES).build();
-            this.permissionCache.put(holder, cache);
+            cache = this.permissionCache.computeIfAbsent(holder, k -> Caffeine.newBuilder().expireAfterAccess(10, TimeUnit.MINUTES).build());
         }
         return cache;
     }
 
+    public void invalidatePermissionCache(GDPermissionHolder holder) {
+        this.getOrCreatePermissionCache(holder).invalidateAll();
+        PermissionDecisionCache.invalidateAll();
+    }
+
     public void invalidateAllPermissionCache() {
-        for (Cache<Integer, Tristate> cache : this.permissionCache.values()) {
+        for (Cache<PermissionQueryKey, Tristate> cache : this.permissionCache.values()) {
+            cache.invalidateAll();
+        }
+        PermissionDecisionCache.invalidateAll();
+    }
+
+    // Creates a lookup key, which must be replaced by OptionQueryKey#immutableCopy before it is stored
+    public OptionQueryKey createOptionQueryKey(TypeToken<?> type, GDPermissionHolder holder, Option<?> option, Claim claim, ClaimType claimType, Set<Context> contexts) {
+        return new OptionQueryKey(type, holder, option, claim, claimType, contexts);
+    }
+
+    public Object getOptionValue(GDPermissionHolder holder, OptionQueryKey key) {
+        final Cache<OptionQueryKey, Object> cache = this.optionCache.get(holder);
+        final Object value = cache == null ? null : cache.getIfPresent(key);
+        if (value == null) {
+            this.optionCacheMisses.increment();
+        } else {
+            this.optionCacheHits.increment();
+        }
+        return value;
+    }
+
+    public void putOptionValue(GDPermissionHolder holder, OptionQueryKey key, Object value) {
+        Cache<OptionQueryKey, Object> cache = this.optionCache.get(holder);
+        if (cache == null) {
+            cache = this.optionCache.computeIfAbsent(holder, k -> Caffeine.newBuilder().expireAfterAccess(10, TimeUnit.MINUTES).build());
+        }
+        cache.put(key, value);
+    }
+
+    public void invalidateOptionCache(GDPermissionHolder holder) {
+        PermissionDecisionCache.invalidateAll();
+        if (holder == GriefDefenderPlugin.DEFAULT_HOLDER || !(holder instanceof GDPermissionUser)) {
+            // users inherit options from groups and default
+            this.invalidateAllOptionCache();
+            return;
+        }
+
+        final Cache<OptionQueryKey, Object> cache = this.optionCache.get(holder);
+        if (cache != null) {
             cache.invalidateAll();
         }
     }
 
+    public void invalidateAllOptionCache() {
+        PermissionDecisionCache.invalidateAll();
+        for (Cache<OptionQueryKey, Object> cache : this.optionCache.values()) {
+            cache.invalidateAll();
+        }
+    }
+
+    public long getOptionCacheHits() {
+        return this.optionCacheHits.sum();
+    }
+
+    public long getOptionCacheMisses() {
+        return this.optionCacheMisses.sum();
+    }
+
+    // Creates a lookup key, which must be replaced by PermissionQueryKey#immutableCopy before it is stored
+    public PermissionQueryKey createPermissionQueryKey(GDClaim claim, GDPermissionHolder holder, String permission, Set<Context> contexts) {
+        return new PermissionQueryKey(claim, holder, permission, contexts);
+    }
+
+    // Returns a shared immutable copy of contexts, which may be modified by the caller afterwards
+    public Set<Context> getOrCreateContextSet(Set<Context> contexts) {
+        Set<Context> contextSet = this.contextSetCache.getIfPresent(contexts);
+        if (contextSet != null) {
+            return contextSet;
+        }
+
+        final Set<Context> newContextSet = ImmutableSet.copyOf(contexts);
+        // Another thread may have interned an equal set in the meantime
+        return this.contextSetCache.get(newContextSet, k -> newContextSet);
+    }
+
     static {
         instance = new PermissionHolderCache();
     }
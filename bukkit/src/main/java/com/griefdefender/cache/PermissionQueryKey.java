@@ -0,0 +1,107 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.cache;
+
+import java.util.Objects;
+import java.util.Set;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.google.common.collect.ImmutableSet;
+import com.griefdefender.api.permission.Context;
+import com.griefdefender.claim.GDClaim;
+import com.griefdefender.permission.GDPermissionHolder;
+
+/**
+ * Key of a cached permission result.
+ *
+ * <p>Unlike a combined hash code, keys are compared by all of their parts so
+ * different queries can never share a result. Lookup keys hold the contexts of
+ * the caller as is, only keys that are stored use {@link #immutableCopy()}.
+ * Stored contexts are interned by {@link PermissionHolderCache}.</p>
+ */
+public final class PermissionQueryKey {
+
+    @Nullable private final GDClaim claim;
+    private final GDPermissionHolder holder;
+    private final String permission;
+    private final Set<Context> contexts;
+    private final int hashCode;
+
+    PermissionQueryKey(@Nullable GDClaim claim, GDPermissionHolder holder, String permission, Set<Context> contexts) {
+        this.claim = claim;
+        this.holder = holder;
+        this.permission = permission;
+        this.contexts = contexts;
+        int hash = Objects.hashCode(claim);
+        hash = 31 * hash + holder.hashCode();
+        hash = 31 * hash + permission.hashCode();
+        hash = 31 * hash + contexts.hashCode();
+        this.hashCode = hash;
+    }
+
+    private PermissionQueryKey(@Nullable GDClaim claim, GDPermissionHolder holder, String permission, Set<Context> contexts, int hashCode) {
+        this.claim = claim;
+        this.holder = holder;
+        this.permission = permission;
+        this.contexts = contexts;
+        this.hashCode = hashCode;
+    }
+
+    /**
+     * Gets a copy of this key that can be stored, must be called before the
+     * contexts of the query are modified.
+     *
+     * @return The key with interned immutable contexts
+     */
+    public PermissionQueryKey immutableCopy() {
+        if (this.contexts instanceof ImmutableSet) {
+            return this;
+        }
+        return new PermissionQueryKey(this.claim, this.holder, this.permission, PermissionHolderCache.getInstance().getOrCreateContextSet(this.contexts), this.hashCode);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof PermissionQueryKey)) {
+            return false;
+        }
+
+        final PermissionQueryKey other = (PermissionQueryKey) obj;
+        return this.hashCode == other.hashCode
+                && Objects.equals(this.claim, other.claim)
+                && this.holder.equals(other.holder)
+                && this.permission.equals(other.permission)
+                && (this.contexts == other.contexts || this.contexts.equals(other.contexts));
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hashCode;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.claim;
+
+import com.griefdefender.api.claim.Claim;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Precomputed top level claim owner of each block column in a chunk.
+ *
+ * <p>Only X/Z bounds are used to build the table. A column covered by
+ * more than one top level claim, such as stacked cuboid claims, is
+ * marked so callers fall back to a full claim search.</p>
+ */
+public class ChunkClaimColumns {
+
+    private final int minX;
+    private final int minZ;
+    // Top level claims intersecting chunk when built
+    private final GDClaim[] claims;
+    // Column index (z << 4 | x) -> owning top level claim
+    private final GDClaim[] owners = new GDClaim[256];
+    // Columns covered by more than one top level claim
+    private final long[] overlapping = new long[4];
+
+    public ChunkClaimColumns(int chunkX, int chunkZ, ClaimIndex claimIndex) {
+        this.minX = chunkX << 4;
+        this.minZ = chunkZ << 4;
+        final List<Claim> claimsInChunk = new ArrayList<>();
+        claimIndex.collectClaims(this.minX, this.minZ, this.minX + 15, this.minZ + 15, claimsInChunk);
+        this.claims = new GDClaim[claimsInChunk.size()];
+        for (int i = 0; i < this.claims.length; i++) {
+            final GDClaim claim = (GDClaim) claimsInChunk.get(i);
+            this.claims[i] = claim;
+            final int startX = Math.max(claim.lesserBoundaryCorner.getX(), this.minX) - this.minX;
+            final int startZ = Math.max(claim.lesserBoundaryCorner.getZ(), this.minZ) - this.minZ;
+            final int endX = Math.min(claim.greaterBoundaryCorner.getX(), this.minX + 15) - this.minX;
+            final int endZ = Math.min(claim.greaterBoundaryCorner.getZ(), this.minZ + 15) - this.minZ;
+            for (int z = startZ; z <= endZ; z++) {
+                for (int x = startX; x <= endX; x++) {
+                    final int index = z << 4 | x;
+                    if (this.owners[index] == null && !this.isOverlapping(index)) {
+                        this.owners[index] = claim;
+                    } else {
+                        this.owners[index] = null;
+                        this.overlapping[index >> 6] |= 1L << index;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the top level claim owning the block column.
+     *
+     * @param x The block x
+     * @param z The block z
+     * @return The owning claim, or null if column is unclaimed or requires a full check
+     */
+    @Nullable
+    public GDClaim getOwner(int x, int z) {
+        return this.owners[(z & 15) << 4 | (x & 15)];
+    }
+
+    /**
+     * Gets whether the block column is covered by more than one top level claim.
+     *
+     * @param x The block x
+     * @param z The block z
+     * @return Whether a full claim search is required
+     */
+    public boolean requiresFullCheck(int x, int z) {
+        return this.isOverlapping((z & 15) << 4 | (x & 15));
+    }
+
+    /**
+     * Gets whether a claim change should invalidate this table.
+     *
+     * @param claim The top level claim
+     * @return Whether claim was used to build table or now intersects chunk
+     */
+    public boolean isAffectedBy(GDClaim claim) {
+        for (GDClaim chunkClaim : this.claims) {
+            if (chunkClaim == claim) {
+                return true;
+            }
+        }
+        return claim.lesserBoundaryCorner.getX() <= this.minX + 15 && claim.greaterBoundaryCorner.getX() >= this.minX
+                && claim.lesserBoundaryCorner.getZ() <= this.minZ + 15 && claim.greaterBoundaryCorner.getZ() >= this.minZ;
+    }
+
+    private boolean isOverlapping(int index) {
+        return (this.overlapping[index >> 6] & (1L << index)) != 0;
+    }
+}
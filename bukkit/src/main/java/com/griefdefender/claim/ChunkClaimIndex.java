@@ -0,0 +1,193 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.claim;
+
+import com.flowpowered.math.vector.Vector3i;
+import com.griefdefender.GDPlayerData;
+import com.griefdefender.api.claim.Claim;
+import com.griefdefender.internal.util.BlockUtil;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Registers each claim once for every chunk it covers.
+ *
+ * <p>Lookups are a single primitive hash probe but memory grows with claim area so
+ * this index should only be used for claims spanning a limited number of chunks.</p>
+ *
+ * <p>Chunk buckets are copy-on-write arrays. Reads never allocate and
+ * only claim creation, resize and removal replace a bucket.</p>
+ */
+public class ChunkClaimIndex implements ClaimIndex {
+
+    private static final GDClaim[] EMPTY_BUCKET = new GDClaim[0];
+
+    // Chunk hash -> Claims
+    private final Long2ObjectOpenHashMap<GDClaim[]> chunksToClaimsMap = new Long2ObjectOpenHashMap<>(4096);
+    // Claim -> chunk bounds used when indexed
+    private final Map<GDClaim, int[]> claimChunkBounds = new HashMap<>();
+
+    @Override
+    public void add(GDClaim claim) {
+        this.remove(claim);
+        final int[] bounds = new int[] {
+                claim.lesserBoundaryCorner.getX() >> 4,
+                claim.lesserBoundaryCorner.getZ() >> 4,
+                claim.greaterBoundaryCorner.getX() >> 4,
+                claim.greaterBoundaryCorner.getZ() >> 4};
+        this.claimChunkBounds.put(claim, bounds);
+        for (int x = bounds[0]; x <= bounds[2]; x++) {
+            for (int z = bounds[1]; z <= bounds[3]; z++) {
+                final long chunkHash = BlockUtil.getInstance().asLong(x, z);
+                final GDClaim[] claimsInChunk = this.chunksToClaimsMap.get(chunkHash);
+                if (claimsInChunk == null) {
+                    this.chunksToClaimsMap.put(chunkHash, new GDClaim[] {claim});
+                    continue;
+                }
+                final GDClaim[] newClaimsInChunk = Arrays.copyOf(claimsInChunk, claimsInChunk.length + 1);
+                newClaimsInChunk[claimsInChunk.length] = claim;
+                this.chunksToClaimsMap.put(chunkHash, newClaimsInChunk);
+            }
+        }
+    }
+
+    @Override
+    public void remove(GDClaim claim) {
+        final int[] bounds = this.claimChunkBounds.remove(claim);
+        if (bounds == null) {
+            return;
+        }
+
+        for (int x = bounds[0]; x <= bounds[2]; x++) {
+            for (int z = bounds[1]; z <= bounds[3]; z++) {
+                final long chunkHash = BlockUtil.getInstance().asLong(x, z);
+                final GDClaim[] claimsInChunk = this.chunksToClaimsMap.get(chunkHash);
+                if (claimsInChunk == null) {
+                    continue;
+                }
+                if (claimsInChunk.length == 1) {
+                    if (claimsInChunk[0] == claim) {
+                        this.chunksToClaimsMap.remove(chunkHash);
+                    }
+                    continue;
+                }
+                for (int i = 0; i < claimsInChunk.length; i++) {
+                    if (claimsInChunk[i] == claim) {
+                        final GDClaim[] newClaimsInChunk = new GDClaim[claimsInChunk.length - 1];
+                        System.arraycopy(claimsInChunk, 0, newClaimsInChunk, 0, i);
+                        System.arraycopy(claimsInChunk, i + 1, newClaimsInChunk, i, claimsInChunk.length - i - 1);
+                        this.chunksToClaimsMap.put(chunkHash, newClaimsInChunk);
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean contains(GDClaim claim) {
+        return this.claimChunkBounds.containsKey(claim);
+    }
+
+    /**
+     * Gets the claims registered in chunk.
+     *
+     * <p>The returned array is shared and must not be modified.</p>
+     *
+     * @param chunkHash The chunk hash
+     * @return The claims in chunk, empty if none
+     */
+    public GDClaim[] getClaims(long chunkHash) {
+        final GDClaim[] claimsInChunk = this.chunksToClaimsMap.get(chunkHash);
+        return claimsInChunk == null ? EMPTY_BUCKET : claimsInChunk;
+    }
+
+    @Override
+    @Nullable
+    public GDClaim findClaimAt(Vector3i pos, int radius, @Nullable GDPlayerData playerData, boolean useBorderBlockRadius) {
+        // Every chunk within radius, each visited once
+        final int minChunkX = (pos.getX() - radius) >> 4;
+        final int minChunkZ = (pos.getZ() - radius) >> 4;
+        final int maxChunkX = (pos.getX() + radius) >> 4;
+        final int maxChunkZ = (pos.getZ() + radius) >> 4;
+        for (int x = minChunkX; x <= maxChunkX; x++) {
+            for (int z = minChunkZ; z <= maxChunkZ; z++) {
+                final GDClaim[] claimsInChunk = this.chunksToClaimsMap.get(BlockUtil.getInstance().asLong(x, z));
+                if (claimsInChunk == null) {
+                    continue;
+                }
+                for (GDClaim claim : claimsInChunk) {
+                    final GDClaim foundClaim = GDClaimManager.findClaim(claim, pos, radius, playerData, useBorderBlockRadius);
+                    if (foundClaim != null) {
+                        return foundClaim;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void collectClaims(int minX, int minZ, int maxX, int maxZ, Collection<Claim> claims) {
+        final long chunkCount = ((long) (maxX >> 4) - (minX >> 4) + 1) * ((long) (maxZ >> 4) - (minZ >> 4) + 1);
+        if (chunkCount > this.claimChunkBounds.size()) {
+            // Cheaper to test every indexed claim than to probe each chunk in area
+            for (Map.Entry<GDClaim, int[]> mapEntry : this.claimChunkBounds.entrySet()) {
+                final int[] bounds = mapEntry.getValue();
+                if (bounds[0] <= maxX >> 4 && bounds[2] >= minX >> 4 && bounds[1] <= maxZ >> 4 && bounds[3] >= minZ >> 4) {
+                    claims.add(mapEntry.getKey());
+                }
+            }
+            return;
+        }
+
+        for (int x = minX >> 4; x <= maxX >> 4; x++) {
+            for (int z = minZ >> 4; z <= maxZ >> 4; z++) {
+                final GDClaim[] claimsInChunk = this.chunksToClaimsMap.get(BlockUtil.getInstance().asLong(x, z));
+                if (claimsInChunk != null) {
+                    for (GDClaim claim : claimsInChunk) {
+                        claims.add(claim);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.claimChunkBounds.size();
+    }
+
+    @Override
+    public void clear() {
+        this.chunksToClaimsMap.clear();
+        this.claimChunkBounds.clear();
+    }
+}
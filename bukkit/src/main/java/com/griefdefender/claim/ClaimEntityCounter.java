@@ -0,0 +1,112 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.claim;
+
+import com.flowpowered.math.vector.Vector3i;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Player;
+
+/**
+ * Live count of entities by type in the loaded chunks of a claim.
+ *
+ * <p>A counter is built by scanning the loaded chunks the claim covers and is
+ * then kept up to date from entity spawns, removals and chunk loads and
+ * unloads. Entities that move between claims or are removed without an event
+ * are corrected when the counter is rebuilt by the next reconciliation.</p>
+ */
+final class ClaimEntityCounter {
+
+    // Minimum age in ticks before a counter is rebuilt by reconciliation
+    static final int RECONCILE_INTERVAL = 20 * 60;
+
+    private final Vector3i lesserBoundaryCorner;
+    private final Vector3i greaterBoundaryCorner;
+    private final Object2IntOpenHashMap<EntityType> counts = new Object2IntOpenHashMap<>();
+    private final int createdTick;
+
+    ClaimEntityCounter(World world, Vector3i lesserBoundaryCorner, Vector3i greaterBoundaryCorner, int tick) {
+        this.lesserBoundaryCorner = lesserBoundaryCorner;
+        this.greaterBoundaryCorner = greaterBoundaryCorner;
+        this.createdTick = tick;
+
+        final int minChunkX = lesserBoundaryCorner.getX() >> 4;
+        final int minChunkZ = lesserBoundaryCorner.getZ() >> 4;
+        final int maxChunkX = greaterBoundaryCorner.getX() >> 4;
+        final int maxChunkZ = greaterBoundaryCorner.getZ() >> 4;
+        final long chunkArea = (long) (maxChunkX - minChunkX + 1) * (maxChunkZ - minChunkZ + 1);
+        final Chunk[] loadedChunks = world.getLoadedChunks();
+        if (chunkArea > loadedChunks.length) {
+            // Large claims such as wilderness cover far more chunks than are loaded
+            for (Chunk chunk : loadedChunks) {
+                if (chunk.getX() >= minChunkX && chunk.getX() <= maxChunkX && chunk.getZ() >= minChunkZ && chunk.getZ() <= maxChunkZ) {
+                    this.addChunk(chunk);
+                }
+            }
+            return;
+        }
+
+        for (int x = minChunkX; x <= maxChunkX; x++) {
+            for (int z = minChunkZ; z <= maxChunkZ; z++) {
+                // Never load chunks to count entities
+                if (world.isChunkLoaded(x, z)) {
+                    this.addChunk(world.getChunkAt(x, z));
+                }
+            }
+        }
+    }
+
+    private void addChunk(Chunk chunk) {
+        for (Entity entity : chunk.getEntities()) {
+            // Players are not counted as they join and leave without spawning
+            if (!(entity instanceof Player)) {
+                this.counts.addTo(entity.getType(), 1);
+            }
+        }
+    }
+
+    boolean isValid(Vector3i lesserBoundaryCorner, Vector3i greaterBoundaryCorner) {
+        // Resizing a claim replaces its corners
+        return this.lesserBoundaryCorner == lesserBoundaryCorner && this.greaterBoundaryCorner == greaterBoundaryCorner;
+    }
+
+    boolean requiresReconcile(int tick) {
+        return tick - this.createdTick >= RECONCILE_INTERVAL;
+    }
+
+    int getCount(EntityType type) {
+        return this.counts.getInt(type);
+    }
+
+    void add(EntityType type, int amount) {
+        final int count = this.counts.addTo(type, amount) + amount;
+        if (count <= 0) {
+            this.counts.removeInt(type);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.claim;
+
+import com.flowpowered.math.vector.Vector3i;
+import com.griefdefender.GDPlayerData;
+import com.griefdefender.api.claim.Claim;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Collection;
+
+/**
+ * Spatial index of sibling claims, either the top level claims of a
+ * world or the direct children of a claim.
+ *
+ * <p>Only the X/Z bounds of a claim are indexed. Height checks are
+ * left to {@link GDClaim#contains}.</p>
+ */
+public interface ClaimIndex {
+
+    void add(GDClaim claim);
+
+    void remove(GDClaim claim);
+
+    boolean contains(GDClaim claim);
+
+    /**
+     * Gets the deepest claim at position, searching every indexed claim
+     * within radius blocks of it on the X/Z axis.
+     *
+     * <p>Implementations must not allocate as this is called for every
+     * claim lookup.</p>
+     */
+    @Nullable
+    GDClaim findClaimAt(Vector3i pos, int radius, @Nullable GDPlayerData playerData, boolean useBorderBlockRadius);
+
+    /**
+     * Adds every indexed claim that may intersect the block area to the collection.
+     */
+    void collectClaims(int minX, int minZ, int maxX, int maxZ, Collection<Claim> claims);
+
+    int size();
+
+    void clear();
+}
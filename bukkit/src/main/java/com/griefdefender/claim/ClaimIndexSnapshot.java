@@ -0,0 +1,186 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.claim;
+
+import com.flowpowered.math.vector.Vector3i;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.griefdefender.api.claim.Claim;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Read only copy of a world's claim index.
+ *
+ * <p>A new snapshot is published by {@link GDClaimManager} after each batch
+ * of claim changes on the main thread. It is never modified once published,
+ * so it can be read from any thread without locking. Lookups use the claim
+ * bounds and children captured when the snapshot was built.</p>
+ *
+ * <p>A snapshot shares the quadtree nodes and child indexes the batch did not
+ * change with the previous one, so publishing only copies the parts of the
+ * index on the path of a changed claim. World claims and claim ids are read
+ * from the same trees, on first use.</p>
+ */
+public final class ClaimIndexSnapshot {
+
+    private final long version;
+    // Top level claims, each entry holds the index of the claim's children
+    private final ClaimQuadTree claimTree;
+    @Nullable private final GDClaim wildernessClaim;
+    // Built from the claim tree on first use
+    private volatile Set<Claim> worldClaims;
+    private volatile Map<UUID, ClaimQuadTree.Entry> entriesById;
+
+    ClaimIndexSnapshot(long version, ClaimQuadTree claimTree, @Nullable GDClaim wildernessClaim) {
+        this.version = version;
+        this.claimTree = claimTree;
+        this.wildernessClaim = wildernessClaim;
+    }
+
+    /**
+     * Gets the version of the claim index this snapshot was built from.
+     *
+     * @return The version
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Gets the top level claims of the world.
+     *
+     * @return The top level claims
+     */
+    public Set<Claim> getWorldClaims() {
+        Set<Claim> worldClaims = this.worldClaims;
+        if (worldClaims == null) {
+            final List<ClaimQuadTree.Entry> entries = new ArrayList<>(this.claimTree.size());
+            this.claimTree.collectEntries(entries);
+            final ImmutableSet.Builder<Claim> builder = ImmutableSet.builder();
+            for (ClaimQuadTree.Entry entry : entries) {
+                builder.add(entry.claim);
+            }
+            worldClaims = builder.build();
+            this.worldClaims = worldClaims;
+        }
+        return worldClaims;
+    }
+
+    /**
+     * Gets the claim with the unique id, including child claims.
+     *
+     * @param uniqueId The claim unique id
+     * @return The claim, or null if none
+     */
+    @Nullable
+    public Claim getClaim(UUID uniqueId) {
+        if (this.wildernessClaim != null && this.wildernessClaim.getUniqueId().equals(uniqueId)) {
+            return this.wildernessClaim;
+        }
+        final ClaimQuadTree.Entry entry = this.getEntriesById().get(uniqueId);
+        return entry == null ? null : entry.claim;
+    }
+
+    /**
+     * Gets the children of a claim as they were when the snapshot was built.
+     *
+     * @param claim The claim
+     * @param recursive Whether to include the children of children
+     * @return The children, empty if the claim is not in the snapshot
+     */
+    public List<Claim> getChildren(Claim claim, boolean recursive) {
+        final ClaimQuadTree.Entry entry = this.getEntriesById().get(claim.getUniqueId());
+        if (entry == null || entry.childTree == null) {
+            return ImmutableList.of();
+        }
+
+        final List<ClaimQuadTree.Entry> entries = new ArrayList<>();
+        entry.childTree.collectEntries(entries);
+        if (recursive) {
+            // entries appended while iterating are visited too
+            for (int i = 0; i < entries.size(); i++) {
+                final ClaimQuadTree.Entry child = entries.get(i);
+                if (child.childTree != null) {
+                    child.childTree.collectEntries(entries);
+                }
+            }
+        }
+        final List<Claim> children = new ArrayList<>(entries.size());
+        for (ClaimQuadTree.Entry child : entries) {
+            children.add(child.claim);
+        }
+        return children;
+    }
+
+    private Map<UUID, ClaimQuadTree.Entry> getEntriesById() {
+        Map<UUID, ClaimQuadTree.Entry> entriesById = this.entriesById;
+        if (entriesById == null) {
+            final List<ClaimQuadTree.Entry> entries = new ArrayList<>(this.claimTree.size());
+            this.claimTree.collectEntries(entries);
+            for (int i = 0; i < entries.size(); i++) {
+                final ClaimQuadTree.Entry entry = entries.get(i);
+                if (entry.childTree != null) {
+                    entry.childTree.collectEntries(entries);
+                }
+            }
+            final ImmutableMap.Builder<UUID, ClaimQuadTree.Entry> builder = ImmutableMap.builder();
+            for (ClaimQuadTree.Entry entry : entries) {
+                builder.put(entry.claim.getUniqueId(), entry);
+            }
+            entriesById = builder.build();
+            this.entriesById = entriesById;
+        }
+        return entriesById;
+    }
+
+    /**
+     * Gets the deepest claim at position, or wilderness if none.
+     *
+     * @param pos The position
+     * @return The claim at position
+     */
+    public Claim getClaimAt(Vector3i pos) {
+        ClaimQuadTree.Entry entry = this.claimTree.findEntryAt(pos.getX(), pos.getY(), pos.getZ());
+        if (entry == null) {
+            return this.wildernessClaim;
+        }
+
+        while (entry.childTree != null) {
+            final ClaimQuadTree.Entry child = entry.childTree.findEntryAt(pos.getX(), pos.getY(), pos.getZ());
+            if (child == null) {
+                break;
+            }
+            entry = child;
+        }
+        return entry.claim;
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.claim;
+
+import com.griefdefender.api.claim.Claim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Finds overlapping claims among a set of sibling claims in one pass.
+ *
+ * <p>Claims are swept along the X axis while the Z intervals of claims
+ * crossing the sweep line are kept in an interval tree. This costs
+ * O((n + k) log n) for n claims and k overlaps, instead of checking
+ * each claim against the area of every other.</p>
+ */
+public final class ClaimOverlapDetector {
+
+    private ClaimOverlapDetector() {
+    }
+
+    /**
+     * Finds every pair of claims whose boundaries intersect.
+     * The wilderness claim is ignored.
+     *
+     * @param claims The claims to check
+     * @return The overlapping claim pairs
+     */
+    public static List<GDClaim[]> findOverlaps(Collection<Claim> claims) {
+        GDClaim[] sorted = new GDClaim[claims.size()];
+        int count = 0;
+        for (Claim claim : claims) {
+            if (!claim.isWilderness()) {
+                sorted[count++] = (GDClaim) claim;
+            }
+        }
+        if (count != sorted.length) {
+            sorted = Arrays.copyOf(sorted, count);
+        }
+        Arrays.sort(sorted, Comparator.comparingInt(claim -> claim.lesserBoundaryCorner.getX()));
+        // Claims leave the sweep line in order of their greater X
+        final Integer[] byMaxX = new Integer[sorted.length];
+        for (int i = 0; i < byMaxX.length; i++) {
+            byMaxX[i] = i;
+        }
+        Arrays.sort(byMaxX, Comparator.comparingInt(index -> sorted[index].greaterBoundaryCorner.getX()));
+
+        final IntervalTree activeClaims = new IntervalTree();
+        final List<GDClaim[]> overlaps = new ArrayList<>();
+        final List<Integer> candidates = new ArrayList<>();
+        int expired = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            final GDClaim claim = sorted[i];
+            while (expired < byMaxX.length && sorted[byMaxX[expired]].greaterBoundaryCorner.getX() < claim.lesserBoundaryCorner.getX()) {
+                final int index = byMaxX[expired++];
+                activeClaims.remove(sorted[index].lesserBoundaryCorner.getZ(), index);
+            }
+
+            candidates.clear();
+            activeClaims.collect(claim.lesserBoundaryCorner.getZ(), claim.greaterBoundaryCorner.getZ(), candidates);
+            for (int index : candidates) {
+                final GDClaim other = sorted[index];
+                // Cuboid claims may be stacked on top of each other
+                if (other.lesserBoundaryCorner.getY() <= claim.greaterBoundaryCorner.getY() && claim.lesserBoundaryCorner.getY() <= other.greaterBoundaryCorner.getY()) {
+                    overlaps.add(new GDClaim[] {other, claim});
+                }
+            }
+            activeClaims.insert(i, claim.lesserBoundaryCorner.getZ(), claim.greaterBoundaryCorner.getZ());
+        }
+        return overlaps;
+    }
+
+    // AVL tree of Z intervals ordered by start, augmented with the greatest end in each subtree
+    private static final class IntervalTree {
+
+        private Node root;
+
+        private void insert(int index, int minZ, int maxZ) {
+            this.root = insert(this.root, new Node(index, minZ, maxZ));
+        }
+
+        private void remove(int minZ, int index) {
+            this.root = remove(this.root, minZ, index);
+        }
+
+        private void collect(int minZ, int maxZ, List<Integer> indexes) {
+            collect(this.root, minZ, maxZ, indexes);
+        }
+
+        private static Node insert(Node node, Node newNode) {
+            if (node == null) {
+                return newNode;
+            }
+            if (compare(newNode.minZ, newNode.index, node) < 0) {
+                node.left = insert(node.left, newNode);
+            } else {
+                node.right = insert(node.right, newNode);
+            }
+            return balance(node);
+        }
+
+        private static Node remove(Node node, int minZ, int index) {
+            if (node == null) {
+                return null;
+            }
+            final int result = compare(minZ, index, node);
+            if (result < 0) {
+                node.left = remove(node.left, minZ, index);
+            } else if (result > 0) {
+                node.right = remove(node.right, minZ, index);
+            } else {
+                if (node.left == null) {
+                    return node.right;
+                }
+                if (node.right == null) {
+                    return node.left;
+                }
+                Node successor = node.right;
+                while (successor.left != null) {
+                    successor = successor.left;
+                }
+                successor.right = removeMin(node.right);
+                successor.left = node.left;
+                node = successor;
+            }
+            return balance(node);
+        }
+
+        private static Node removeMin(Node node) {
+            if (node.left == null) {
+                return node.right;
+            }
+            node.left = removeMin(node.left);
+            return balance(node);
+        }
+
+        private static void collect(Node node, int minZ, int maxZ, List<Integer> indexes) {
+            if (node == null || node.maxEnd < minZ) {
+                return;
+            }
+            collect(node.left, minZ, maxZ, indexes);
+            if (node.minZ > maxZ) {
+                // every interval in right subtree starts after query
+                return;
+            }
+            if (node.maxZ >= minZ) {
+                indexes.add(node.index);
+            }
+            collect(node.right, minZ, maxZ, indexes);
+        }
+
+        private static int compare(int minZ, int index, Node node) {
+            if (minZ != node.minZ) {
+                return minZ < node.minZ ? -1 : 1;
+            }
+            return Integer.compare(index, node.index);
+        }
+
+        private static int height(Node node) {
+            return node == null ? 0 : node.height;
+        }
+
+        private static void update(Node node) {
+            node.height = Math.max(height(node.left), height(node.right)) + 1;
+            int maxEnd = node.maxZ;
+            if (node.left != null && node.left.maxEnd > maxEnd) {
+                maxEnd = node.left.maxEnd;
+            }
+            if (node.right != null && node.right.maxEnd > maxEnd) {
+                maxEnd = node.right.maxEnd;
+            }
+            node.maxEnd = maxEnd;
+        }
+
+        private static Node balance(Node node) {
+            update(node);
+            final int balance = height(node.left) - height(node.right);
+            if (balance > 1) {
+                if (height(node.left.left) < height(node.left.right)) {
+                    node.left = rotateLeft(node.left);
+                }
+                return rotateRight(node);
+            }
+            if (balance < -1) {
+                if (height(node.right.right) < height(node.right.left)) {
+                    node.right = rotateRight(node.right);
+                }
+                return rotateLeft(node);
+            }
+            return node;
+        }
+
+        private static Node rotateRight(Node node) {
+            final Node left = node.left;
+            node.left = left.right;
+            left.right = node;
+            update(node);
+            update(left);
+            return left;
+        }
+
+        private static Node rotateLeft(Node node) {
+            final Node right = node.right;
+            node.right = right.left;
+            right.left = node;
+            update(node);
+            update(right);
+            return right;
+        }
+    }
+
+    private static final class Node {
+
+        private final int index;
+        private final int minZ;
+        private final int maxZ;
+        private int maxEnd;
+        private int height = 1;
+        private Node left;
+        private Node right;
+
+        private Node(int index, int minZ, int maxZ) {
+            this.index = index;
+            this.minZ = minZ;
+            this.maxZ = maxZ;
+            this.maxEnd = maxZ;
+        }
+    }
+}
@@ -0,0 +1,389 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.claim;
+
+import com.flowpowered.math.vector.Vector3i;
+import com.griefdefender.GDPlayerData;
+import com.griefdefender.api.claim.Claim;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loose region quadtree over claim X/Z bounds.
+ *
+ * <p>Each claim is stored once, in the deepest node whose loose bounds fully
+ * contain it, so memory does not depend on claim area. The loose bounds of a
+ * child extend half its size past its quadrant, so a claim crossing the
+ * midline of a node still moves down to the child holding its center unless
+ * it is large compared to that child. Lookups only visit nodes whose loose
+ * bounds contain the point or area.</p>
+ *
+ * <p>{@link #freeze()} hands out read only copies for snapshots. Nodes are
+ * copied on write, so a copy shares every node the tree has not modified
+ * since and each later change copies only the nodes on its path.</p>
+ */
+public class ClaimQuadTree implements ClaimIndex {
+
+    private static final int NODE_CAPACITY = 8;
+    private static final int MAX_DEPTH = 20;
+
+    private Node root;
+    // Null for read only copies
+    @Nullable private final Map<GDClaim, Entry> entries;
+    // Nodes created with this owner may be modified in place
+    private Object owner = new Object();
+
+    public ClaimQuadTree() {
+        this(-30000000, -30000000, 29999999, 29999999);
+    }
+
+    public ClaimQuadTree(int minX, int minZ, int maxX, int maxZ) {
+        this.root = new Node(minX, minZ, maxX, maxZ, 0, this.owner);
+        this.entries = new HashMap<>();
+    }
+
+    private ClaimQuadTree(Node root) {
+        this.root = root;
+        this.entries = null;
+    }
+
+    @Override
+    public void add(GDClaim claim) {
+        this.remove(claim);
+        final Entry entry = new Entry(claim);
+        this.entries.put(claim, entry);
+        this.root = this.insert(this.root, entry);
+    }
+
+    @Override
+    public void remove(GDClaim claim) {
+        final Entry entry = this.entries.remove(claim);
+        if (entry != null) {
+            this.root = this.remove(this.root, entry);
+        }
+    }
+
+    @Override
+    public boolean contains(GDClaim claim) {
+        return this.entries.containsKey(claim);
+    }
+
+    @Override
+    @Nullable
+    public GDClaim findClaimAt(Vector3i pos, int radius, @Nullable GDPlayerData playerData, boolean useBorderBlockRadius) {
+        return this.findClaimAt(this.root, pos, radius, playerData, useBorderBlockRadius);
+    }
+
+    @Override
+    public void collectClaims(int minX, int minZ, int maxX, int maxZ, Collection<Claim> claims) {
+        this.collectClaims(this.root, minX, minZ, maxX, maxZ, claims);
+    }
+
+    @Override
+    public int size() {
+        return this.root.size;
+    }
+
+    @Override
+    public void clear() {
+        this.entries.clear();
+        this.root = new Node(this.root.minX, this.root.minZ, this.root.maxX, this.root.maxZ, 0, this.owner);
+    }
+
+    /**
+     * Gets a read only copy of the tree that later changes do not affect.
+     *
+     * @return The read only copy
+     */
+    ClaimQuadTree freeze() {
+        // current nodes now belong to the copy, the next change to each is made on a new node
+        this.owner = new Object();
+        return new ClaimQuadTree(this.root);
+    }
+
+    // Adds every entry of the tree, used with copies returned by freeze
+    void collectEntries(List<Entry> entries) {
+        this.root.collectEntries(entries);
+    }
+
+    // Uses only the bounds cached at insert time, so it is safe for concurrent
+    // readers of a copy returned by freeze
+    @Nullable
+    Entry findEntryAt(int x, int y, int z) {
+        return findEntryAt(this.root, x, y, z);
+    }
+
+    @Nullable
+    private static Entry findEntryAt(Node node, int x, int y, int z) {
+        for (int i = 0; i < node.entries.size(); i++) {
+            final Entry entry = node.entries.get(i);
+            if (entry.contains(x, y, z)) {
+                return entry;
+            }
+        }
+        if (node.children != null) {
+            for (Node child : node.children) {
+                if (child.size > 0 && child.intersects(x, z, x, z)) {
+                    final Entry entry = findEntryAt(child, x, y, z);
+                    if (entry != null) {
+                        return entry;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    // Returns the node to modify in place of node, a copy if it is shared with a frozen tree
+    private Node getWritableNode(Node node) {
+        return node.owner == this.owner ? node : node.copy(this.owner);
+    }
+
+    private Node insert(Node node, Entry entry) {
+        node = this.getWritableNode(node);
+        node.size++;
+        if (node.children != null) {
+            final int childIndex = node.getChildIndex(entry);
+            if (childIndex != -1) {
+                node.children[childIndex] = this.insert(node.children[childIndex], entry);
+                return node;
+            }
+        }
+
+        node.entries.add(entry);
+        if (node.children == null && node.entries.size() > NODE_CAPACITY && node.depth < MAX_DEPTH) {
+            this.split(node);
+        }
+        return node;
+    }
+
+    private Node remove(Node node, Entry entry) {
+        node = this.getWritableNode(node);
+        node.size--;
+        final int childIndex = node.children == null ? -1 : node.getChildIndex(entry);
+        if (childIndex != -1) {
+            node.children[childIndex] = this.remove(node.children[childIndex], entry);
+        } else {
+            node.entries.remove(entry);
+        }
+
+        if (node.children != null && node.size <= NODE_CAPACITY) {
+            // subtree is small enough to be stored in a single node again
+            for (Node childNode : node.children) {
+                childNode.collectEntries(node.entries);
+            }
+            node.children = null;
+        }
+        return node;
+    }
+
+    private void split(Node node) {
+        final int midX = node.getMidX();
+        final int midZ = node.getMidZ();
+        node.children = new Node[] {
+                Node.createChild(node.minX, node.minZ, midX, midZ, node.depth + 1, this.owner),
+                Node.createChild(midX + 1, node.minZ, node.maxX, midZ, node.depth + 1, this.owner),
+                Node.createChild(node.minX, midZ + 1, midX, node.maxZ, node.depth + 1, this.owner),
+                Node.createChild(midX + 1, midZ + 1, node.maxX, node.maxZ, node.depth + 1, this.owner)};
+        final List<Entry> nodeEntries = new ArrayList<>(node.entries);
+        node.entries.clear();
+        for (Entry entry : nodeEntries) {
+            final int childIndex = node.getChildIndex(entry);
+            if (childIndex != -1) {
+                node.children[childIndex] = this.insert(node.children[childIndex], entry);
+            } else {
+                node.entries.add(entry);
+            }
+        }
+    }
+
+    @Nullable
+    private GDClaim findClaimAt(Node node, Vector3i pos, int radius, GDPlayerData playerData, boolean useBorderBlockRadius) {
+        final int minX = pos.getX() - radius;
+        final int minZ = pos.getZ() - radius;
+        final int maxX = pos.getX() + radius;
+        final int maxZ = pos.getZ() + radius;
+        for (int i = 0; i < node.entries.size(); i++) {
+            final Entry entry = node.entries.get(i);
+            if (entry.intersects(minX, minZ, maxX, maxZ)) {
+                final GDClaim foundClaim = GDClaimManager.findClaim(entry.claim, pos, radius, playerData, useBorderBlockRadius);
+                if (foundClaim != null) {
+                    return foundClaim;
+                }
+            }
+        }
+        if (node.children != null) {
+            for (Node child : node.children) {
+                if (child.size > 0 && child.intersects(minX, minZ, maxX, maxZ)) {
+                    final GDClaim foundClaim = this.findClaimAt(child, pos, radius, playerData, useBorderBlockRadius);
+                    if (foundClaim != null) {
+                        return foundClaim;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private void collectClaims(Node node, int minX, int minZ, int maxX, int maxZ, Collection<Claim> claims) {
+        for (int i = 0; i < node.entries.size(); i++) {
+            final Entry entry = node.entries.get(i);
+            if (entry.intersects(minX, minZ, maxX, maxZ)) {
+                claims.add(entry.claim);
+            }
+        }
+        if (node.children != null) {
+            for (Node child : node.children) {
+                if (child.size > 0 && child.intersects(minX, minZ, maxX, maxZ)) {
+                    this.collectClaims(child, minX, minZ, maxX, maxZ, claims);
+                }
+            }
+        }
+    }
+
+    static final class Entry {
+
+        final GDClaim claim;
+        // Read only index of the claim's children when the entry was added
+        @Nullable final ClaimQuadTree childTree;
+        private final int minX;
+        private final int minY;
+        private final int minZ;
+        private final int maxX;
+        private final int maxY;
+        private final int maxZ;
+
+        private Entry(GDClaim claim) {
+            this.claim = claim;
+            this.childTree = claim.getPublishedChildIndex();
+            this.minX = claim.lesserBoundaryCorner.getX();
+            this.minY = claim.lesserBoundaryCorner.getY();
+            this.minZ = claim.lesserBoundaryCorner.getZ();
+            this.maxX = claim.greaterBoundaryCorner.getX();
+            this.maxY = claim.greaterBoundaryCorner.getY();
+            this.maxZ = claim.greaterBoundaryCorner.getZ();
+        }
+
+        private boolean contains(int x, int y, int z) {
+            return x >= this.minX && x <= this.maxX && y >= this.minY && y <= this.maxY && z >= this.minZ && z <= this.maxZ;
+        }
+
+        private boolean intersects(int minX, int minZ, int maxX, int maxZ) {
+            return this.minX <= maxX && this.maxX >= minX && this.minZ <= maxZ && this.maxZ >= minZ;
+        }
+    }
+
+    private static final class Node {
+
+        // Quadrant of the node, used to pick the child of an entry
+        private final int minX;
+        private final int minZ;
+        private final int maxX;
+        private final int maxZ;
+        // Bounds all entries in the node and its children are within
+        private final int looseMinX;
+        private final int looseMinZ;
+        private final int looseMaxX;
+        private final int looseMaxZ;
+        private final int depth;
+        private final Object owner;
+        private final List<Entry> entries;
+        private Node[] children;
+        // Number of entries stored in this node and all of its children
+        private int size;
+
+        private Node(int minX, int minZ, int maxX, int maxZ, int depth, Object owner) {
+            this(minX, minZ, maxX, maxZ, minX, minZ, maxX, maxZ, depth, owner, new ArrayList<>(4));
+        }
+
+        private Node(int minX, int minZ, int maxX, int maxZ, int looseMinX, int looseMinZ, int looseMaxX, int looseMaxZ, int depth,
+                Object owner, List<Entry> entries) {
+            this.minX = minX;
+            this.minZ = minZ;
+            this.maxX = maxX;
+            this.maxZ = maxZ;
+            this.looseMinX = looseMinX;
+            this.looseMinZ = looseMinZ;
+            this.looseMaxX = looseMaxX;
+            this.looseMaxZ = looseMaxZ;
+            this.depth = depth;
+            this.owner = owner;
+            this.entries = entries;
+        }
+
+        private static Node createChild(int minX, int minZ, int maxX, int maxZ, int depth, Object owner) {
+            final int halfSizeX = (int) ((((long) maxX - minX) + 1) >> 1);
+            final int halfSizeZ = (int) ((((long) maxZ - minZ) + 1) >> 1);
+            return new Node(minX, minZ, maxX, maxZ, minX - halfSizeX, minZ - halfSizeZ, maxX + halfSizeX, maxZ + halfSizeZ, depth, owner, new ArrayList<>(4));
+        }
+
+        private Node copy(Object owner) {
+            final Node node = new Node(this.minX, this.minZ, this.maxX, this.maxZ, this.looseMinX, this.looseMinZ, this.looseMaxX, this.looseMaxZ,
+                    this.depth, owner, new ArrayList<>(this.entries));
+            node.children = this.children == null ? null : this.children.clone();
+            node.size = this.size;
+            return node;
+        }
+
+        private int getMidX() {
+            return (int) (((long) this.minX + this.maxX) >> 1);
+        }
+
+        private int getMidZ() {
+            return (int) (((long) this.minZ + this.maxZ) >> 1);
+        }
+
+        // Returns the index of the child holding the center of the entry if its loose bounds contain the entry, otherwise -1
+        private int getChildIndex(Entry entry) {
+            final long centerX = ((long) entry.minX + entry.maxX) >> 1;
+            final long centerZ = ((long) entry.minZ + entry.maxZ) >> 1;
+            final int childIndex = (centerX <= this.getMidX() ? 0 : 1) + (centerZ <= this.getMidZ() ? 0 : 2);
+            final Node child = this.children[childIndex];
+            if (entry.minX >= child.looseMinX && entry.maxX <= child.looseMaxX && entry.minZ >= child.looseMinZ && entry.maxZ <= child.looseMaxZ) {
+                return childIndex;
+            }
+            return -1;
+        }
+
+        private boolean intersects(int minX, int minZ, int maxX, int maxZ) {
+            return this.looseMinX <= maxX && this.looseMaxX >= minX && this.looseMinZ <= maxZ && this.looseMaxZ >= minZ;
+        }
+
+        // Leaves the node unchanged as it may be shared with a frozen tree
+        private void collectEntries(List<Entry> target) {
+            target.addAll(this.entries);
+            if (this.children != null) {
+                for (Node child : this.children) {
+                    child.collectEntries(target);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.claim;
+
+import com.griefdefender.api.claim.TrustType;
+import com.griefdefender.api.claim.TrustTypes;
+import com.griefdefender.configuration.IClaimData;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Maps each trusted user of a claim to a bitmask of its trust tiers.
+ *
+ * <p>An index is only valid for the trust lists and modification count of the
+ * claim data it was built from.</p>
+ */
+final class ClaimTrustIndex {
+
+    private static final int ACCESSOR = 1;
+    private static final int CONTAINER = 1 << 1;
+    private static final int BUILDER = 1 << 2;
+    private static final int MANAGER = 1 << 3;
+
+    private final Object2IntOpenHashMap<UUID> trustMasks = new Object2IntOpenHashMap<>();
+    private final List<UUID> accessors;
+    private final List<UUID> containers;
+    private final List<UUID> builders;
+    private final List<UUID> managers;
+    private final int modificationCount;
+
+    ClaimTrustIndex(IClaimData claimData) {
+        this.accessors = claimData.getAccessors();
+        this.containers = claimData.getContainers();
+        this.builders = claimData.getBuilders();
+        this.managers = claimData.getManagers();
+        this.modificationCount = claimData.getModificationCount();
+        this.addTrusts(this.accessors, ACCESSOR);
+        this.addTrusts(this.containers, CONTAINER);
+        this.addTrusts(this.builders, BUILDER);
+        this.addTrusts(this.managers, MANAGER);
+    }
+
+    private void addTrusts(List<UUID> uuids, int mask) {
+        for (UUID uuid : uuids) {
+            this.trustMasks.put(uuid, this.trustMasks.getInt(uuid) | mask);
+        }
+    }
+
+    boolean isValid(IClaimData claimData) {
+        return this.modificationCount == claimData.getModificationCount()
+                && this.accessors == claimData.getAccessors()
+                && this.containers == claimData.getContainers()
+                && this.builders == claimData.getBuilders()
+                && this.managers == claimData.getManagers();
+    }
+
+    boolean isTrusted(UUID uuid, TrustType type) {
+        final int mask = this.trustMasks.getInt(uuid);
+        return mask != 0 && (mask & getRequiredMask(type)) != 0;
+    }
+
+    // Higher trust tiers include lower ones
+    private static int getRequiredMask(TrustType type) {
+        if (type == TrustTypes.ACCESSOR) {
+            return ACCESSOR | CONTAINER | BUILDER | MANAGER;
+        }
+        if (type == TrustTypes.CONTAINER) {
+            return CONTAINER | BUILDER | MANAGER;
+        }
+        if (type == TrustTypes.BUILDER) {
+            return BUILDER | MANAGER;
+        }
+        if (type == TrustTypes.MANAGER) {
+            return MANAGER;
+        }
+        return 0;
+    }
+}
@@ -69,6 +69,7 @@
 import com.griefdefender.event.GDUserTrustClaimEvent;
 import com.griefdefender.internal.provider.WorldGuardProvider;
 import com.griefdefender.internal.util.BlockUtil;
+import com.griefdefender.internal.util.NMSUtil;
 import com.griefdefender.internal.util.VecHelper;
 import com.griefdefender.internal.visual.ClaimVisual;
 import com.griefdefender.permission.GDPermissionHolder;
@@ -81,6 +82,7 @@
 import com.griefdefender.util.EconomyUtil;
 import com.griefdefender.util.PermissionUtil;
 
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import net.kyori.text.Component;
 import net.kyori.text.TextComponent;
 import net.kyori.text.format.TextColor;
@@ -120,7 +122,12 @@ public class GDClaim implements Claim {
     public Vector3i greaterBoundaryCorner;
     private World world;
     private ClaimType type = ClaimTypes.BASIC;
-    private Set<Long> chunkHashes;
+    private LongOpenHashSet chunkHashes;
+    // Chunk bounds used to build chunk hashes
+    private int chunkHashMinX;
+    private int chunkHashMinZ;
+    private int chunkHashMaxX;
+    private int chunkHashMaxZ;
     private final int hashCode;
     private final GDClaimManager worldClaimManager;
     private final Claim wildernessClaim;
@@ -142,6 +149,16 @@ public class GDClaim implements Claim {
 
     public GDClaim parent = null;
     public Set<Claim> children = new HashSet<>();
+    // Spatial index of direct children, created with first child
+    private ClaimQuadTree childIndex;
+    // Read only copy of the child index for claim index snapshots, main thread only
+    private ClaimQuadTree publishedChildIndex;
+    // Trust tiers of each trusted user, rebuilt after claim data changes
+    private ClaimTrustIndex trustIndex;
+    // Entities by type in loaded chunks, created by the first spawn limit check
+    private ClaimEntityCounter entityCounter;
+    // Whether the claim is queued for entity counter reconciliation
+    boolean entityCounterTracked = false;
     public ClaimVisual claimVisual;
     public List<UUID> playersWatching = new ArrayList<>();
     public Map<String, ClaimSchematic> schematics = new HashMap<>();
@@ -213,6 +230,19 @@ public GDClaim(World world, Vector3i lesserBoundaryCorner, Vector3i greaterBound
         }
     }
 
+    // Bounds only claim that is not registered with a claim manager, used by index tests
+    GDClaim(Vector3i lesserBoundaryCorner, Vector3i greaterBoundaryCorner) {
+        this.id = UUID.randomUUID();
+        this.lesserBoundaryCorner = lesserBoundaryCorner;
+        this.greaterBoundaryCorner = greaterBoundaryCorner;
+        this.context = new Context("gd_claim", this.id.toString());
+        this.overrideClaimContext = new Context("gd_claim_override", this.id.toString());
+        this.worldContext = null;
+        this.hashCode = this.id.hashCode();
+        this.worldClaimManager = null;
+        this.wildernessClaim = null;
+    }
+
     public void initializeClaimData(GDClaim parent) {
         Path claimDataFolderPath = null;
         // check if main world
@@ -235,6 +265,7 @@ public void initializeClaimData(GDClaim parent) {
             this.claimStorage = new ClaimStorageData(claimFile.toPath(), this.world.getUID(), this.ownerUniqueId, this.type, this.cuboid);
         }
         this.claimData = this.claimStorage.getConfig();
+        this.claimStorage.getConfig().setClaim(this);
         this.parent = parent;
         if (parent != null) {
             this.claimStorage.getConfig().setParent(parent.getUniqueId());
@@ -780,19 +811,25 @@ public Set<Long> getChunkHashes() {
         return this.getChunkHashes(true);
     }
 
-    public Set<Long> getChunkHashes(boolean refresh) {
-        if (this.chunkHashes == null || refresh) {
-            this.chunkHashes = new HashSet<Long>();
-            int smallX = this.lesserBoundaryCorner.getX() >> 4;
-            int smallZ = this.lesserBoundaryCorner.getZ() >> 4;
-            int largeX = this.greaterBoundaryCorner.getX() >> 4;
-            int largeZ = this.greaterBoundaryCorner.getZ() >> 4;
-    
+    public LongOpenHashSet getChunkHashes(boolean refresh) {
+        final int smallX = this.lesserBoundaryCorner.getX() >> 4;
+        final int smallZ = this.lesserBoundaryCorner.getZ() >> 4;
+        final int largeX = this.greaterBoundaryCorner.getX() >> 4;
+        final int largeZ = this.greaterBoundaryCorner.getZ() >> 4;
+        // Only rebuild if the chunk bounds changed since last call
+        if (this.chunkHashes == null || (refresh && (smallX != this.chunkHashMinX || smallZ != this.chunkHashMinZ
+                || largeX != this.chunkHashMaxX || largeZ != this.chunkHashMaxZ))) {
+            final LongOpenHashSet chunkHashes = new LongOpenHashSet((int) Math.min(((long) largeX - smallX + 1) * ((long) largeZ - smallZ + 1), 1 << 16));
             for (int x = smallX; x <= largeX; x++) {
                 for (int z = smallZ; z <= largeZ; z++) {
-                    this.chunkHashes.add(BlockUtil.getInstance().asLong(x, z));
+                    chunkHashes.add(BlockUtil.getInstance().asLong(x, z));
                 }
             }
+            this.chunkHashMinX = smallX;
+            this.chunkHashMinZ = smallZ;
+            this.chunkHashMaxX = largeX;
+            this.chunkHashMaxZ = largeZ;
+            this.chunkHashes = chunkHashes;
         }
 
         return this.chunkHashes;
@@ -822,6 +859,9 @@ public ClaimStorageData getClaimStorage() {
 
     public void setClaimData(IClaimData data) {
         this.claimData = data;
+        if (data instanceof ClaimDataConfig) {
+            ((ClaimDataConfig) data).setClaim(this);
+        }
     }
 
     public void setClaimStorage(ClaimStorageData storage) {
@@ -934,7 +974,9 @@ public ClaimResult transferOwner(UUID newOwnerID, boolean checkEconomy, boolean
             this.claimData.setType(ClaimTypes.BASIC);
         }
 
+        final UUID previousOwnerUniqueId = this.getOwnerUniqueId();
         this.ownerUniqueId = event.getNewOwner();
+        this.worldClaimManager.updateOwnerIndex(this, previousOwnerUniqueId);
         if (!this.getOwnerUniqueId().equals(newOwnerID)) {
             newOwnerData = GriefDefenderPlugin.getInstance().dataStore.getOrCreatePlayerData(this.world, this.getOwnerUniqueId());
         }
@@ -982,20 +1024,13 @@ public ClaimResult doesClaimOverlap() {
         }
 
         final GDClaimManager claimWorldManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(this.world.getUID());
-        final Set<Long> chunkHashes = this.getChunkHashes(true);
 
-        // Since there is no parent we need to check all claims stored in chunk hashes
-        for (Long chunkHash : chunkHashes) {
-            Set<Claim> claimsInChunk = claimWorldManager.getInternalChunksToClaimsMap().get(chunkHash);
-            if (claimsInChunk == null || claimsInChunk.size() == 0) {
-                continue;
-            }
-            for (Claim child : claimsInChunk) {
-                final GDClaim gpChild = (GDClaim) child;
-                // First check if newly resized claim is crossing another
-                if (this.isBandingAcross(gpChild) || gpChild.isBandingAcross(this)) {
-                    return new GDClaimResult(child, ClaimResultType.OVERLAPPING_CLAIM);
-                }
+        // Since there is no parent we need to check all top level claims in area
+        for (Claim child : claimWorldManager.getInternalClaimsInArea(this.lesserBoundaryCorner, this.greaterBoundaryCorner)) {
+            final GDClaim gpChild = (GDClaim) child;
+            // First check if newly resized claim is crossing another
+            if (this.isBandingAcross(gpChild) || gpChild.isBandingAcross(this)) {
+                return new GDClaimResult(child, ClaimResultType.OVERLAPPING_CLAIM);
             }
         }
 
@@ -1040,46 +1075,39 @@ public ClaimResult checkArea(boolean resize) {
         }
 
         final GDClaimManager claimWorldManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(this.world.getUID());
-        final Set<Long> chunkHashes = this.getChunkHashes(true);
 
-        // Since there is no parent we need to check all claims stored in chunk hashes
-        for (Long chunkHash : chunkHashes) {
-            Set<Claim> claimsInChunk = claimWorldManager.getInternalChunksToClaimsMap().get(chunkHash);
-            if (claimsInChunk == null || claimsInChunk.size() == 0) {
+        // Since there is no parent we need to check all top level claims in area
+        for (Claim chunkClaim : claimWorldManager.getInternalClaimsInArea(this.lesserBoundaryCorner, this.greaterBoundaryCorner)) {
+            final GDClaim gpChunkClaim = (GDClaim) chunkClaim;
+            if (gpChunkClaim.equals(this) || claimsInArea.contains(gpChunkClaim)) {
+                continue;
+            }
+            if (this.isAdminClaim() && gpChunkClaim.isAdminClaim() && gpChunkClaim.parent != null && gpChunkClaim.parent.equals(this)) {
                 continue;
             }
-            for (Claim chunkClaim : claimsInChunk) {
-                final GDClaim gpChunkClaim = (GDClaim) chunkClaim;
-                if (gpChunkClaim.equals(this) || claimsInArea.contains(gpChunkClaim)) {
-                    continue;
-                }
-                if (this.isAdminClaim() && gpChunkClaim.isAdminClaim() && gpChunkClaim.parent != null && gpChunkClaim.parent.equals(this)) {
-                    continue;
-                }
 
-                // First check if new claim is crossing another
-                if (this.isBandingAcross(gpChunkClaim) || gpChunkClaim.isBandingAcross(this)) {
-                    return new GDClaimResult(gpChunkClaim, ClaimResultType.OVERLAPPING_CLAIM);
-                }
-                if (gpChunkClaim.isInside(this)) {
-                     if (!this.isAdminClaim()) {
-                        if (this.type.equals(gpChunkClaim.type) || gpChunkClaim.isAdminClaim()) {
-                            return new GDClaimResult(gpChunkClaim, ClaimResultType.OVERLAPPING_CLAIM);
-                        }
-                    }
-                    if (!this.canEnclose(gpChunkClaim)) {
-                        return new GDClaimResult(gpChunkClaim, ClaimResultType.OVERLAPPING_CLAIM);
-                    }
-                    if (!this.isSubdivision()) {
-                        claimsInArea.add(gpChunkClaim);
-                    }
-                } else if (this.isInside(gpChunkClaim)) {
-                    // Fix WorldEdit issue
-                    // Make sure to check if chunk claim can enclose newly created claim
-                    if (!gpChunkClaim.canEnclose(this)) {
+            // First check if new claim is crossing another
+            if (this.isBandingAcross(gpChunkClaim) || gpChunkClaim.isBandingAcross(this)) {
+                return new GDClaimResult(gpChunkClaim, ClaimResultType.OVERLAPPING_CLAIM);
+            }
+            if (gpChunkClaim.isInside(this)) {
+                 if (!this.isAdminClaim()) {
+                    if (this.type.equals(gpChunkClaim.type) || gpChunkClaim.isAdminClaim()) {
                         return new GDClaimResult(gpChunkClaim, ClaimResultType.OVERLAPPING_CLAIM);
                     }
                 }
+                if (!this.canEnclose(gpChunkClaim)) {
+                    return new GDClaimResult(gpChunkClaim, ClaimResultType.OVERLAPPING_CLAIM);
+                }
+                if (!this.isSubdivision()) {
+                    claimsInArea.add(gpChunkClaim);
+                }
+            } else if (this.isInside(gpChunkClaim)) {
+                // Fix WorldEdit issue
+                // Make sure to check if chunk claim can enclose newly created claim
+                if (!gpChunkClaim.canEnclose(this)) {
+                    return new GDClaimResult(gpChunkClaim, ClaimResultType.OVERLAPPING_CLAIM);
+                }
             }
         }
 
@@ -1132,7 +1160,7 @@ public ClaimResult checkAreaParent(List<Claim> claimsInArea, boolean resize) {
                         claimsToMigrate.add(childClaim);
                     } else {
                         childClaim.parent = null;
-                        this.children.remove(childClaim);
+                        this.removeChild(childClaim);
                         final GDClaimManager claimWorldManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(this.world.getUID());
                         claimWorldManager.addClaim(childClaim, true);
                     }
@@ -1301,10 +1329,6 @@ public ClaimResult resize(int x1, int x2, int y1, int y2, int z1, int z2) {
         this.lesserBoundaryCorner = newLesserCorner;
         this.greaterBoundaryCorner = newGreaterCorner;
 
-        // checkArea refreshes the current chunk hashes so it is important
-        // to make a copy before making the call
-        final Set<Long> currentChunkHashes = new HashSet<>(this.chunkHashes);
-
         final ClaimResult result = this.checkArea(true);
         if (!result.successful()) {
             this.lesserBoundaryCorner = currentLesserCorner;
@@ -1326,26 +1350,11 @@ public ClaimResult resize(int x1, int x2, int y1, int y2, int z1, int z2) {
         this.greaterBoundaryCorner = newGreaterCorner;
         GDClaimManager claimWorldManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(this.world.getUID());
 
-        // resize validated, remove invalid chunkHashes
+        // resize validated, update claim index
         if (this.parent == null) {
-            for (Long chunkHash : currentChunkHashes) {
-                Set<Claim> claimsInChunk = claimWorldManager.getInternalChunksToClaimsMap().get(chunkHash);
-                if (claimsInChunk != null && claimsInChunk.size() > 0) {
-                    claimsInChunk.remove(this);
-                }
-            }
-
-            final Set<Long> newChunkHashes = this.getChunkHashes(true);
-            // add new chunk hashes
-            for (Long chunkHash : newChunkHashes) {
-                Set<Claim> claimsInChunk = claimWorldManager.getInternalChunksToClaimsMap().get(chunkHash);
-                if (claimsInChunk == null) {
-                    claimsInChunk = new HashSet<>();
-                    claimWorldManager.getInternalChunksToClaimsMap().put(chunkHash, claimsInChunk);
-                }
-
-                claimsInChunk.add(this);
-            }
+            claimWorldManager.updateClaimIndex(this);
+        } else {
+            this.parent.updateChildIndex(this);
         }
 
         this.claimData.setLesserBoundaryCorner(BlockUtil.getInstance().posToString(this.lesserBoundaryCorner));
@@ -1431,10 +1440,6 @@ public ClaimResult resizeCuboid(Player player, int smallX, int smallY, int small
         this.lesserBoundaryCorner = newLesserCorner;
         this.greaterBoundaryCorner = newGreaterCorner;
 
-        // checkArea refreshes the current chunk hashes so it is important
-        // to make a copy before making the call
-        final Set<Long> currentChunkHashes = new HashSet<>(this.chunkHashes);
-
         final ClaimResult result = this.checkArea(true);
         if (!result.successful()) {
             this.lesserBoundaryCorner = currentLesserCorner;
@@ -1453,27 +1458,12 @@ public ClaimResult resizeCuboid(Player player, int smallX, int smallY, int small
 
         this.lesserBoundaryCorner = newLesserCorner;
         this.greaterBoundaryCorner = newGreaterCorner;
-        // resize validated, remove invalid chunkHashes
+        // resize validated, update claim index
         final GDClaimManager claimWorldManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(this.world.getUID());
         if (this.parent == null) {
-            for (Long chunkHash : currentChunkHashes) {
-                Set<Claim> claimsInChunk = claimWorldManager.getInternalChunksToClaimsMap().get(chunkHash);
-                if (claimsInChunk != null && claimsInChunk.size() > 0) {
-                    claimsInChunk.remove(this);
-                }
-            }
-
-            final Set<Long> newChunkHashes = this.getChunkHashes(true);
-            // add new chunk hashes
-            for (Long chunkHash : newChunkHashes) {
-                Set<Claim> claimsInChunk = claimWorldManager.getInternalChunksToClaimsMap().get(chunkHash);
-                if (claimsInChunk == null) {
-                    claimsInChunk = new HashSet<>();
-                    claimWorldManager.getInternalChunksToClaimsMap().put(chunkHash, claimsInChunk);
-                }
-
-                claimsInChunk.add(this);
-            }
+            claimWorldManager.updateClaimIndex(this);
+        } else {
+            this.parent.updateChildIndex(this);
         }
 
         this.claimData.setLesserBoundaryCorner(BlockUtil.getInstance().posToString(this.lesserBoundaryCorner));
@@ -1768,6 +1758,62 @@ public List<UUID> getPlayers() {
         return playerList;
     }
 
+    public void addChild(GDClaim child) {
+        this.children.add(child);
+        this.updateChildIndex(child);
+    }
+
+    public void removeChild(GDClaim child) {
+        this.children.remove(child);
+        if (this.childIndex != null) {
+            this.childIndex.remove(child);
+        }
+        GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(this.world.getUID()).markChildIndexChanged(this);
+    }
+
+    // Used when a direct child is added or resized
+    public void updateChildIndex(GDClaim child) {
+        if (this.childIndex == null) {
+            this.childIndex = new ClaimQuadTree();
+        }
+        this.childIndex.add(child);
+        GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(this.world.getUID()).markChildIndexChanged(this);
+    }
+
+    // Used when publishing a claim index snapshot, see GDClaimManager#publishClaimIndexSnapshot
+    void publishChildIndex() {
+        this.publishedChildIndex = this.childIndex == null || this.childIndex.size() == 0 ? null : this.childIndex.freeze();
+    }
+
+    @Nullable
+    ClaimQuadTree getPublishedChildIndex() {
+        return this.publishedChildIndex;
+    }
+
+    // Re-adds the index entry of a direct child so it holds the child's current published index
+    void refreshChildEntry(GDClaim child) {
+        if (this.childIndex != null && this.childIndex.contains(child)) {
+            this.childIndex.add(child);
+        }
+    }
+
+    /**
+     * Gets the deepest child claim at position.
+     *
+     * @param pos The position
+     * @param radius The border block radius to search
+     * @param playerData The player data, if available
+     * @param useBorderBlockRadius Whether to use border block radius
+     * @return The child claim at position, or null if none
+     */
+    @Nullable
+    public GDClaim findChildAt(Vector3i pos, int radius, @Nullable GDPlayerData playerData, boolean useBorderBlockRadius) {
+        if (this.childIndex == null) {
+            return null;
+        }
+        return this.childIndex.findClaimAt(pos, radius, playerData, useBorderBlockRadius);
+    }
+
     @Override
     public Set<Claim> getChildren(boolean recursive) {
         if (recursive) {
@@ -1945,10 +1991,12 @@ public ClaimResult changeType(ClaimType type, Optional<UUID> ownerUniqueId, Comm
             }
         }
 
+        final UUID previousOwnerUniqueId = this.getOwnerUniqueId();
         if (!newOwnerUUID.equals(GriefDefenderPlugin.ADMIN_USER_UUID)) {
             this.setOwnerUniqueId(newOwnerUUID);
         }
         this.setType(type);
+        claimWorldManager.updateOwnerIndex(this, previousOwnerUniqueId);
         this.claimVisual = null;
         this.getInternalClaimData().setRequiresSave(true);
         this.getClaimStorage().save();
@@ -2021,16 +2069,55 @@ public ClaimResult validateClaimType(ClaimType type, UUID newOwnerUUID, GDPlayer
     }
 
     public int countEntities(EntityType type) {
-        int count = 0;
-        for (Chunk chunk : this.getChunks()) {
-            for (Entity entity : chunk.getEntities()) {
-                if (entity.getType() == type) {
-                    count++;
-                }
-            }
+        ClaimEntityCounter counter = this.entityCounter;
+        if (counter == null || !counter.isValid(this.lesserBoundaryCorner, this.greaterBoundaryCorner)) {
+            counter = new ClaimEntityCounter(this.world, this.lesserBoundaryCorner, this.greaterBoundaryCorner, NMSUtil.getInstance().getRunningServerTicks());
+            this.entityCounter = counter;
+            GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(this.world.getUID()).trackEntityCounter(this);
+        }
+
+        return counter.getCount(type);
+    }
+
+    // Collects this claim and its children with an entity counter that covers the chunk
+    void collectEntityCounters(int chunkX, int chunkZ, List<GDClaim> claims) {
+        if (chunkX < (this.lesserBoundaryCorner.getX() >> 4) || chunkX > (this.greaterBoundaryCorner.getX() >> 4)
+                || chunkZ < (this.lesserBoundaryCorner.getZ() >> 4) || chunkZ > (this.greaterBoundaryCorner.getZ() >> 4)) {
+            return;
+        }
+        if (this.entityCounter != null) {
+            claims.add(this);
+        }
+        for (Claim child : this.children) {
+            ((GDClaim) child).collectEntityCounters(chunkX, chunkZ, claims);
+        }
+    }
+
+    void addEntityCount(EntityType type, int amount) {
+        final ClaimEntityCounter counter = this.entityCounter;
+        if (counter != null) {
+            counter.add(type, amount);
         }
+    }
 
-        return count;
+    // Used when this claim is deleted
+    public void invalidateEntityCounter() {
+        this.entityCounter = null;
+        for (Claim child : this.children) {
+            ((GDClaim) child).invalidateEntityCounter();
+        }
+    }
+
+    // Rebuilds the entity counter if it is old enough, returns false if the claim has no counter
+    boolean reconcileEntityCounter(int tick) {
+        final ClaimEntityCounter counter = this.entityCounter;
+        if (counter == null) {
+            return false;
+        }
+        if (counter.requiresReconcile(tick)) {
+            this.entityCounter = new ClaimEntityCounter(this.world, this.lesserBoundaryCorner, this.greaterBoundaryCorner, tick);
+        }
+        return true;
     }
 
     @Override
@@ -2116,40 +2203,8 @@ public boolean isUserTrusted(GDPermissionUser user, TrustType type, Set<Context>
             return true;
         }
 
-        if (type == TrustTypes.ACCESSOR) {
-            if (this.claimData.getAccessors().contains(user.getUniqueId())) {
-                return true;
-            }
-            if (this.claimData.getBuilders().contains(user.getUniqueId())) {
-                return true;
-            }
-            if (this.claimData.getContainers().contains(user.getUniqueId())) {
-                return true;
-            }
-            if (this.claimData.getManagers().contains(user.getUniqueId())) {
-                return true;
-            }
-        } else if (type == TrustTypes.BUILDER) {
-            if (this.claimData.getBuilders().contains(user.getUniqueId())) {
-                return true;
-            }
-            if (this.claimData.getManagers().contains(user.getUniqueId())) {
-                return true;
-            }
-        } else if (type == TrustTypes.CONTAINER) {
-            if (this.claimData.getContainers().contains(user.getUniqueId())) {
-                return true;
-            }
-            if (this.claimData.getBuilders().contains(user.getUniqueId())) {
-                return true;
-            }
-            if (this.claimData.getManagers().contains(user.getUniqueId())) {
-                return true;
-            }
-        } else if (type == TrustTypes.MANAGER) {
-            if (this.claimData.getManagers().contains(user.getUniqueId())) {
-                return true;
-            }
+        if (this.getTrustIndex().isTrusted(user.getUniqueId(), type)) {
+            return true;
         }
 
         if (contexts == null) {
@@ -2170,43 +2225,16 @@ public boolean isUserTrusted(GDPermissionUser user, TrustType type, Set<Context>
     }
 
     private boolean isPublicTrusted(TrustType type) {
-        if (type == TrustTypes.ACCESSOR) {
-            if (this.claimData.getAccessors().contains(GriefDefenderPlugin.PUBLIC_UUID)) {
-                return true;
-            }
-            if (this.claimData.getBuilders().contains(GriefDefenderPlugin.PUBLIC_UUID)) {
-                return true;
-            }
-            if (this.claimData.getContainers().contains(GriefDefenderPlugin.PUBLIC_UUID)) {
-                return true;
-            }
-            if (this.claimData.getManagers().contains(GriefDefenderPlugin.PUBLIC_UUID)) {
-                return true;
-            }
-        } else if (type == TrustTypes.BUILDER) {
-            if (this.claimData.getBuilders().contains(GriefDefenderPlugin.PUBLIC_UUID)) {
-                return true;
-            }
-            if (this.claimData.getManagers().contains(GriefDefenderPlugin.PUBLIC_UUID)) {
-                return true;
-            }
-        } else if (type == TrustTypes.CONTAINER) {
-            if (this.claimData.getContainers().contains(GriefDefenderPlugin.PUBLIC_UUID)) {
-                return true;
-            }
-            if (this.claimData.getBuilders().contains(GriefDefenderPlugin.PUBLIC_UUID)) {
-                return true;
-            }
-            if (this.claimData.getManagers().contains(GriefDefenderPlugin.PUBLIC_UUID)) {
-                return true;
-            }
-        } else if (type == TrustTypes.MANAGER) {
-            if (this.claimData.getManagers().contains(GriefDefenderPlugin.PUBLIC_UUID)) {
-                return true;
-            }
-        }
+        return this.getTrustIndex().isTrusted(GriefDefenderPlugin.PUBLIC_UUID, type);
+    }
 
-        return false;
+    private ClaimTrustIndex getTrustIndex() {
+        ClaimTrustIndex trustIndex = this.trustIndex;
+        if (trustIndex == null || !trustIndex.isValid(this.claimData)) {
+            trustIndex = new ClaimTrustIndex(this.claimData);
+            this.trustIndex = trustIndex;
+        }
+        return trustIndex;
     }
 
     @Override
@@ -2473,6 +2501,8 @@ public ClaimResult removeAllTrustsFromUser(UUID userUniqueId) {
         for (TrustType type : TrustTypeRegistryModule.getInstance().getAll()) {
             this.getUserTrustList(type).remove(userUniqueId);
         }
+        // Callers may save later
+        this.trustIndex = null;
 
         return new GDClaimResult(this, ClaimResultType.SUCCESS);
     }
@@ -3000,7 +3030,7 @@ public boolean migrateClaims(List<Claim> claims) {
     public void moveChildToParent(GDClaim parentClaim, GDClaim childClaim) {
         // Remove child from current parent if available
         if (childClaim.parent != null && childClaim.parent != parentClaim) {
-            childClaim.parent.children.remove(childClaim);
+            childClaim.parent.removeChild(childClaim);
         }
         childClaim.parent = parentClaim;
         String fileName = childClaim.getClaimStorage().filePath.getFileName().toString();
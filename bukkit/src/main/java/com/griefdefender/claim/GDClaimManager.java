@@ -27,8 +27,8 @@
 import com.flowpowered.math.vector.Vector3i;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Maps;
 import com.google.common.reflect.TypeToken;
+import com.griefdefender.GDBootstrap;
 import com.griefdefender.GDPlayerData;
 import com.griefdefender.GriefDefenderPlugin;
 import com.griefdefender.api.GriefDefender;
@@ -44,13 +44,15 @@
 import com.griefdefender.event.GDRemoveClaimEvent;
 import com.griefdefender.internal.tracking.PlayerIndexStorage;
 import com.griefdefender.internal.tracking.chunk.GDChunk;
-import com.griefdefender.internal.util.BlockUtil;
+import com.griefdefender.internal.util.NMSUtil;
 import com.griefdefender.internal.util.VecHelper;
 import com.griefdefender.permission.GDPermissionManager;
 import com.griefdefender.storage.BaseStorage;
-import com.griefdefender.util.Direction;
 
+import it.unimi.dsi.fastutil.ints.IntArrays;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import net.kyori.text.Component;
 import net.kyori.text.TextComponent;
 import net.kyori.text.serializer.plain.PlainComponentSerializer;
@@ -60,19 +62,27 @@
 import org.bukkit.Location;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class GDClaimManager implements ClaimManager {
 
@@ -80,24 +90,53 @@ public class GDClaimManager implements ClaimManager {
     private UUID worldUniqueId;
     private String worldName;
 
+    // Concurrent as permission checks may look up player data and claims off the main thread
     // Player UUID -> player data
-    private Map<UUID, GDPlayerData> playerDataList = Maps.newHashMap();
+    private Map<UUID, GDPlayerData> playerDataList = new ConcurrentHashMap<>();
     // World claim list
-    private Set<Claim> worldClaims = new HashSet<>();
+    private Set<Claim> worldClaims = ConcurrentHashMap.newKeySet();
     // Claim UUID -> Claim
-    private Map<UUID, Claim> claimUniqueIdMap = Maps.newHashMap();
-    // String -> Claim
-    private Map<Long, Set<Claim>> chunksToClaimsMap = new Long2ObjectOpenHashMap<>(4096);
+    private Map<UUID, Claim> claimUniqueIdMap = new ConcurrentHashMap<>();
+    // Owner UUID -> top level non-admin claims
+    private Map<UUID, Set<Claim>> ownerClaimsMap = new ConcurrentHashMap<>();
+    // Lowercase plain name -> top level claims
+    private Map<String, Set<Claim>> claimNameMap = new ConcurrentHashMap<>();
+    // Top level claim -> indexed name
+    private Map<Claim, String> indexedClaimNames = new ConcurrentHashMap<>();
+    // Top level claim spatial index
+    private final ClaimIndex claimIndex;
+    // Top level claim quadtree frozen into each snapshot, the claim index itself unless the chunk index is used
+    private final ClaimQuadTree snapshotClaimTree;
     // Entity Index
     public PlayerIndexStorage playerIndexStorage;
-    private Map<Long, GDChunk> chunksToGpChunks = new Long2ObjectOpenHashMap<>(4096);
+    private Long2ObjectOpenHashMap<GDChunk> chunksToGpChunks = new Long2ObjectOpenHashMap<>(4096);
+    // Loaded chunk -> top level claim column owners
+    private final Long2ObjectOpenHashMap<ChunkClaimColumns> chunksToClaimColumns = new Long2ObjectOpenHashMap<>(4096);
+    // Claim index copy for readers off the main thread, replaced after each batch of changes
+    private volatile ClaimIndexSnapshot claimIndexSnapshot;
+    private long claimIndexVersion = 0;
+    private boolean snapshotPublishScheduled = false;
+    // Claims with child index changes since the last snapshot
+    private final Set<GDClaim> changedChildIndexes = new HashSet<>();
 
     private GDClaim theWildernessClaim;
+    // Claims with entity counters, reconciled in turn by EntityCounterTask
+    private final Deque<GDClaim> entityCounterClaims = new ArrayDeque<>();
+    // Entities included in the entity counters, guards against counting an entity twice
+    private final Set<Entity> countedEntities = Collections.newSetFromMap(new WeakHashMap<>());
 
     public GDClaimManager(World world) {
         this.worldUniqueId = world.getUID();
         this.worldName = world.getName();
         this.playerIndexStorage = new PlayerIndexStorage(world);
+        if (GriefDefenderPlugin.getGlobalConfig().getConfig().claim.spatialIndex.equalsIgnoreCase("chunk")) {
+            this.claimIndex = new ChunkClaimIndex();
+            this.snapshotClaimTree = new ClaimQuadTree();
+        } else {
+            this.snapshotClaimTree = new ClaimQuadTree();
+            this.claimIndex = this.snapshotClaimTree;
+        }
+        this.claimIndexSnapshot = new ClaimIndexSnapshot(this.claimIndexVersion, this.snapshotClaimTree.freeze(), null);
     }
 
     public GDPlayerData getOrCreatePlayerData(UUID playerUniqueId) {
@@ -112,52 +151,61 @@ public GDPlayerData getOrCreatePlayerData(UUID playerUniqueId) {
     private GDPlayerData createPlayerData(UUID playerUniqueId) {
         Set<Claim> claimList = this.createPlayerClaimList(playerUniqueId);
         GDPlayerData playerData = new GDPlayerData(this.worldUniqueId, this.worldName, playerUniqueId, claimList);
-        this.getPlayerDataMap().put(playerUniqueId, playerData);
-        return playerData;
+        // Another thread may have created the player data in the meantime
+        final GDPlayerData existingData = this.getPlayerDataMap().putIfAbsent(playerUniqueId, playerData);
+        return existingData != null ? existingData : playerData;
     }
 
     private Set<Claim> createPlayerClaimList(UUID playerUniqueId) {
-        Set<Claim> claimList = new HashSet<>();
+        Set<Claim> claimList = ConcurrentHashMap.newKeySet();
         if (BaseStorage.USE_GLOBAL_PLAYER_STORAGE) {
             for (World world : Bukkit.getServer().getWorlds()) {
                 GDClaimManager claimmanager = DATASTORE.getClaimWorldManager(world.getUID());
-                for (Claim claim : claimmanager.worldClaims) {
-                    GDClaim gpClaim = (GDClaim) claim;
-                    if (gpClaim.isAdminClaim()) {
-                        continue;
-                    }
-                    if (gpClaim.parent != null) {
-                       if (gpClaim.parent.getOwnerUniqueId().equals(playerUniqueId)) {
-                           claimList.add(claim);
-                       }
-                    } else {
-                        if (gpClaim.getOwnerUniqueId().equals(playerUniqueId)) {
-                            claimList.add(claim);
-                        }
-                    }
+                final Set<Claim> ownerClaims = claimmanager.ownerClaimsMap.get(playerUniqueId);
+                if (ownerClaims != null) {
+                    claimList.addAll(ownerClaims);
                 }
             }
         } else {
-            for (Claim claim : this.worldClaims) {
-                GDClaim gpClaim = (GDClaim) claim;
-                if (gpClaim.isAdminClaim()) {
-                    continue;
-                }
-                if (gpClaim.parent != null) {
-                   if (gpClaim.parent.getOwnerUniqueId().equals(playerUniqueId)) {
-                       claimList.add(claim);
-                   }
-                } else {
-                    if (gpClaim.getOwnerUniqueId().equals(playerUniqueId)) {
-                        claimList.add(claim);
-                    }
-                }
+            final Set<Claim> ownerClaims = this.ownerClaimsMap.get(playerUniqueId);
+            if (ownerClaims != null) {
+                claimList.addAll(ownerClaims);
             }
         }
 
         return claimList;
     }
 
+    private void addOwnerClaim(GDClaim claim) {
+        if (claim.isAdminClaim()) {
+            return;
+        }
+        Set<Claim> ownerClaims = this.ownerClaimsMap.get(claim.getOwnerUniqueId());
+        if (ownerClaims == null) {
+            ownerClaims = ConcurrentHashMap.newKeySet();
+            this.ownerClaimsMap.put(claim.getOwnerUniqueId(), ownerClaims);
+        }
+        ownerClaims.add(claim);
+    }
+
+    private void removeOwnerClaim(GDClaim claim, UUID ownerUniqueId) {
+        final Set<Claim> ownerClaims = this.ownerClaimsMap.get(ownerUniqueId);
+        if (ownerClaims != null) {
+            ownerClaims.remove(claim);
+            if (ownerClaims.isEmpty()) {
+                this.ownerClaimsMap.remove(ownerUniqueId);
+            }
+        }
+    }
+
+    // Used when the owner or type of a claim changes
+    public void updateOwnerIndex(GDClaim claim, UUID previousOwnerUniqueId) {
+        this.removeOwnerClaim(claim, previousOwnerUniqueId);
+        if (this.worldClaims.contains(claim)) {
+            this.addOwnerClaim(claim);
+        }
+    }
+
     public void removePlayer(UUID playerUniqueId) {
         this.getPlayerDataMap().remove(playerUniqueId);
     }
@@ -196,6 +244,7 @@ public void addClaim(Claim claimToAdd, boolean writeToStorage) {
 
         // We need to keep track of all claims so they can be referenced by children during server startup
         this.claimUniqueIdMap.put(claim.getUniqueId(), claim);
+        this.markClaimIndexChanged();
 
         if (claim.isWilderness()) {
             this.theWildernessClaim = claim;
@@ -203,9 +252,12 @@ public void addClaim(Claim claimToAdd, boolean writeToStorage) {
         }
 
         if (claim.parent != null) {
-            claim.parent.children.add(claim);
-            this.worldClaims.remove(claim);
-            this.deleteChunkHashes((GDClaim) claim);
+            claim.parent.addChild(claim);
+            if (this.worldClaims.remove(claim)) {
+                this.removeOwnerClaim(claim, claim.getOwnerUniqueId());
+                this.removeClaimName(claim);
+            }
+            this.removeFromClaimIndex(claim);
             if (!claim.isAdminClaim() && (!claim.isInTown() || !claim.getTownClaim().getOwnerUniqueId().equals(claim.getOwnerUniqueId()))) {
                 final GDPlayerData playerData = this.getPlayerDataMap().get(claim.getOwnerUniqueId());
                 Set<Claim> playerClaims = playerData.getInternalClaims();
@@ -218,6 +270,8 @@ public void addClaim(Claim claimToAdd, boolean writeToStorage) {
 
         if (!this.worldClaims.contains(claim)) {
             this.worldClaims.add(claim);
+            this.addOwnerClaim(claim);
+            this.updateClaimName(claim);
         }
         final UUID ownerId = claim.getOwnerUniqueId();
         final GDPlayerData playerData = this.getPlayerDataMap().get(ownerId);
@@ -230,28 +284,115 @@ public void addClaim(Claim claimToAdd, boolean writeToStorage) {
             this.createPlayerData(ownerId);
         }
 
-        this.updateChunkHashes(claim);
+        this.updateClaimIndex(claim);
         return;
     }
 
-    public void updateChunkHashes(GDClaim claim) {
-        this.deleteChunkHashes(claim);
-        Set<Long> chunkHashes = claim.getChunkHashes(true);
-        for (Long chunkHash : chunkHashes) {
-            Set<Claim> claimsInChunk = this.getInternalChunksToClaimsMap().get(chunkHash);
-            if (claimsInChunk == null) {
-                claimsInChunk = new HashSet<Claim>();
-                this.getInternalChunksToClaimsMap().put(chunkHash, claimsInChunk);
-            }
+    // Used when a top level claim is created or resized
+    public void updateClaimIndex(GDClaim claim) {
+        this.claimIndex.add(claim);
+        if (this.snapshotClaimTree != this.claimIndex) {
+            this.snapshotClaimTree.add(claim);
+        }
+        this.invalidateClaimColumns(claim);
+        this.markClaimIndexChanged();
+    }
 
-            claimsInChunk.add(claim);
+    private void removeFromClaimIndex(GDClaim claim) {
+        this.claimIndex.remove(claim);
+        if (this.snapshotClaimTree != this.claimIndex) {
+            this.snapshotClaimTree.remove(claim);
         }
+        this.invalidateClaimColumns(claim);
+        this.markClaimIndexChanged();
+    }
+
+    // Schedules a new snapshot to be published at the end of the current batch of changes
+    public void markClaimIndexChanged() {
+        this.claimIndexVersion++;
+        if (this.snapshotPublishScheduled) {
+            return;
+        }
+
+        this.snapshotPublishScheduled = true;
+        Bukkit.getScheduler().runTask(GDBootstrap.getInstance(), this::publishClaimIndexSnapshot);
+    }
+
+    // Used when a direct child of the claim is added, removed or resized
+    public void markChildIndexChanged(GDClaim claim) {
+        this.changedChildIndexes.add(claim);
+        this.markClaimIndexChanged();
+    }
+
+    public void publishClaimIndexSnapshot() {
+        this.snapshotPublishScheduled = false;
+        if (this.worldUniqueId == null || this.claimIndexSnapshot.getVersion() == this.claimIndexVersion) {
+            return;
+        }
+
+        this.publishChildIndexes();
+        this.claimIndexSnapshot = new ClaimIndexSnapshot(this.claimIndexVersion, this.snapshotClaimTree.freeze(), this.theWildernessClaim);
+    }
+
+    // Each index entry holds the published child index of its claim, so a changed child index is published
+    // along with every ancestor, deepest first. Untouched claims keep the entries of the last snapshot.
+    private void publishChildIndexes() {
+        if (this.changedChildIndexes.isEmpty()) {
+            return;
+        }
+
+        final List<GDClaim> claims = new ArrayList<>();
+        final Set<GDClaim> visited = new HashSet<>();
+        for (GDClaim claim : this.changedChildIndexes) {
+            while (claim != null && visited.add(claim)) {
+                claims.add(claim);
+                claim = claim.parent;
+            }
+        }
+        this.changedChildIndexes.clear();
+        final Object2IntOpenHashMap<GDClaim> depths = new Object2IntOpenHashMap<>(claims.size());
+        for (GDClaim claim : claims) {
+            int depth = 0;
+            for (GDClaim parent = claim.parent; parent != null; parent = parent.parent) {
+                depth++;
+            }
+            depths.put(claim, depth);
+        }
+        claims.sort((claim, other) -> Integer.compare(depths.getInt(other), depths.getInt(claim)));
+        for (GDClaim claim : claims) {
+            claim.publishChildIndex();
+            if (claim.parent != null) {
+                claim.parent.refreshChildEntry(claim);
+            } else if (this.snapshotClaimTree.contains(claim)) {
+                this.snapshotClaimTree.add(claim);
+            }
+        }
+    }
+
+    /**
+     * Gets the last published snapshot of the claim index.
+     *
+     * <p>Safe to use from any thread. Changes made during the current tick
+     * are visible once the next snapshot is published.</p>
+     *
+     * @return The claim index snapshot
+     */
+    public ClaimIndexSnapshot getClaimIndexSnapshot() {
+        return this.claimIndexSnapshot;
+    }
+
+    // Removes column tables of loaded chunks the claim was or is now in
+    private void invalidateClaimColumns(GDClaim claim) {
+        this.chunksToClaimColumns.values().removeIf(claimColumns -> claimColumns.isAffectedBy(claim));
     }
 
     // Used when parent claims becomes children
     public void removeClaimData(Claim claim) {
-        this.worldClaims.remove(claim);
-        this.deleteChunkHashes((GDClaim) claim);
+        if (this.worldClaims.remove(claim)) {
+            this.removeOwnerClaim((GDClaim) claim, claim.getOwnerUniqueId());
+            this.removeClaimName(claim);
+        }
+        this.removeFromClaimIndex((GDClaim) claim);
     }
 
     @Override
@@ -299,11 +440,15 @@ public ClaimResult deleteClaimInternal(Claim claim, boolean deleteChildren) {
             }
             economy.deleteBank(claim.getUniqueId().toString());
         }
-        this.worldClaims.remove(claim);
+        if (this.worldClaims.remove(claim)) {
+            this.removeOwnerClaim(gpClaim, claim.getOwnerUniqueId());
+            this.removeClaimName(gpClaim);
+        }
         this.claimUniqueIdMap.remove(claim.getUniqueId());
-        this.deleteChunkHashes((GDClaim) claim);
+        this.removeFromClaimIndex(gpClaim);
+        gpClaim.invalidateEntityCounter();
         if (gpClaim.parent != null) {
-            gpClaim.parent.children.remove(claim);
+            gpClaim.parent.removeChild(gpClaim);
         }
 
         return DATASTORE.deleteClaimFromStorage((GDClaim) claim);
@@ -375,20 +520,6 @@ private void resetPlayerClaimVisuals(Claim claim) {
         }
     }
 
-    private void deleteChunkHashes(GDClaim claim) {
-        Set<Long> chunkHashes = claim.getChunkHashes(false);
-        if (chunkHashes == null) {
-            return;
-        }
-
-        for (Long chunkHash : chunkHashes) {
-            Set<Claim> claimsInChunk = this.getInternalChunksToClaimsMap().get(chunkHash);
-            if (claimsInChunk != null) {
-                claimsInChunk.remove(claim);
-            }
-        }
-    }
-
     @Nullable
     public Optional<Claim> getClaimByUUID(UUID claimUniqueId) {
         return Optional.ofNullable(this.claimUniqueIdMap.get(claimUniqueId));
@@ -422,6 +553,7 @@ public void createWildernessClaim(World world) {
         wilderness.claimStorage.save();
         this.theWildernessClaim = wilderness;
         this.claimUniqueIdMap.put(wilderness.getUniqueId(), wilderness);
+        this.markClaimIndexChanged();
     }
 
     @Override
@@ -445,29 +577,173 @@ public Map<UUID, GDPlayerData> getPlayerDataMap() {
         return this.playerDataList;
     }
 
+    // Checks all top level claims at once, used after bulk loads that bypass checkArea
+    public List<GDClaim[]> findClaimOverlaps() {
+        return ClaimOverlapDetector.findOverlaps(this.worldClaims);
+    }
+
     public Set<Claim> findOverlappingClaims(Claim claim) {
         Set<Claim> claimSet = new HashSet<>();
-        for (Long chunkHash : claim.getChunkHashes()) {
-            final Set<Claim> chunkClaims = this.chunksToClaimsMap.get(chunkHash);
-            if (chunkClaims == null) {
-                continue;
-            }
-            for (Claim chunkClaim : chunkClaims) {
-                if (!chunkClaim.equals(claim) && (claim.overlaps(chunkClaim) || chunkClaim.overlaps(claim))) {
-                    claimSet.add(chunkClaim);
-                }
+        for (Claim areaClaim : this.getInternalClaimsInArea(claim.getLesserBoundaryCorner(), claim.getGreaterBoundaryCorner())) {
+            if (!areaClaim.equals(claim) && (claim.overlaps(areaClaim) || areaClaim.overlaps(claim))) {
+                claimSet.add(areaClaim);
             }
         }
         return claimSet;
     }
 
+    /**
+     * Gets all top level claims that may intersect the X/Z area between both corners.
+     *
+     * @param lesserCorner The lesser corner
+     * @param greaterCorner The greater corner
+     * @return The top level claims in area
+     */
+    public Set<Claim> getInternalClaimsInArea(Vector3i lesserCorner, Vector3i greaterCorner) {
+        final Set<Claim> claimSet = new HashSet<>();
+        this.claimIndex.collectClaims(lesserCorner.getX(), lesserCorner.getZ(), greaterCorner.getX(), greaterCorner.getZ(), claimSet);
+        return claimSet;
+    }
+
+    // Built on demand as top level claims are no longer registered per chunk
     @Override
     public Map<Long, Set<Claim>> getChunksToClaimsMap() {
-        return ImmutableMap.copyOf(this.chunksToClaimsMap);
+        final Map<Long, Set<Claim>> chunksToClaimsMap = new Long2ObjectOpenHashMap<>();
+        for (Claim claim : this.worldClaims) {
+            for (Long chunkHash : ((GDClaim) claim).getChunkHashes(true)) {
+                Set<Claim> claimsInChunk = chunksToClaimsMap.get(chunkHash);
+                if (claimsInChunk == null) {
+                    claimsInChunk = new HashSet<>();
+                    chunksToClaimsMap.put(chunkHash, claimsInChunk);
+                }
+                claimsInChunk.add(claim);
+            }
+        }
+        return ImmutableMap.copyOf(chunksToClaimsMap);
     }
 
-    public Map<Long, Set<Claim>> getInternalChunksToClaimsMap() {
-        return this.chunksToClaimsMap;
+    public void trackEntityCounter(GDClaim claim) {
+        if (claim.entityCounterTracked) {
+            return;
+        }
+        if (this.entityCounterClaims.isEmpty()) {
+            // Counters were just built from the loaded chunks so every loaded entity is counted
+            for (Entity entity : claim.getWorld().getEntities()) {
+                if (!(entity instanceof Player)) {
+                    this.countedEntities.add(entity);
+                }
+            }
+        }
+        claim.entityCounterTracked = true;
+        this.entityCounterClaims.add(claim);
+    }
+
+    public void addCountedEntity(Entity entity) {
+        if (this.entityCounterClaims.isEmpty() || entity instanceof Player || !this.countedEntities.add(entity)) {
+            return;
+        }
+
+        final Location location = entity.getLocation();
+        for (GDClaim claim : this.getEntityCounterClaims(location.getBlockX() >> 4, location.getBlockZ() >> 4)) {
+            claim.addEntityCount(entity.getType(), 1);
+        }
+    }
+
+    public void removeCountedEntity(Entity entity) {
+        if (this.entityCounterClaims.isEmpty() || !this.countedEntities.remove(entity)) {
+            return;
+        }
+
+        final Location location = entity.getLocation();
+        for (GDClaim claim : this.getEntityCounterClaims(location.getBlockX() >> 4, location.getBlockZ() >> 4)) {
+            claim.addEntityCount(entity.getType(), -1);
+        }
+    }
+
+    // Adds the entities of a loaded chunk to the entity counters covering it
+    public void addCountedEntities(Chunk chunk) {
+        if (this.entityCounterClaims.isEmpty()) {
+            return;
+        }
+
+        final Object2IntOpenHashMap<EntityType> counts = new Object2IntOpenHashMap<>();
+        for (Entity entity : chunk.getEntities()) {
+            if (!(entity instanceof Player) && this.countedEntities.add(entity)) {
+                counts.addTo(entity.getType(), 1);
+            }
+        }
+        this.addEntityCounts(chunk, counts, 1);
+    }
+
+    // Removes the entities of an unloading chunk from the entity counters covering it
+    public void removeCountedEntities(Chunk chunk) {
+        if (this.entityCounterClaims.isEmpty()) {
+            return;
+        }
+
+        final Object2IntOpenHashMap<EntityType> counts = new Object2IntOpenHashMap<>();
+        for (Entity entity : chunk.getEntities()) {
+            if (this.countedEntities.remove(entity)) {
+                counts.addTo(entity.getType(), 1);
+            }
+        }
+        this.addEntityCounts(chunk, counts, -1);
+    }
+
+    private void addEntityCounts(Chunk chunk, Object2IntOpenHashMap<EntityType> counts, int sign) {
+        if (counts.isEmpty()) {
+            return;
+        }
+
+        for (GDClaim claim : this.getEntityCounterClaims(chunk.getX(), chunk.getZ())) {
+            for (Object2IntMap.Entry<EntityType> entry : counts.object2IntEntrySet()) {
+                claim.addEntityCount(entry.getKey(), sign * entry.getIntValue());
+            }
+        }
+    }
+
+    // Claims with an entity counter whose chunk range contains the chunk, matching the chunks scanned by ClaimEntityCounter
+    private List<GDClaim> getEntityCounterClaims(int chunkX, int chunkZ) {
+        final List<GDClaim> claims = new ArrayList<>();
+        if (this.theWildernessClaim != null) {
+            this.theWildernessClaim.collectEntityCounters(chunkX, chunkZ, claims);
+        }
+        final Vector3i lesserCorner = new Vector3i(chunkX << 4, 0, chunkZ << 4);
+        final Vector3i greaterCorner = new Vector3i((chunkX << 4) + 15, 0, (chunkZ << 4) + 15);
+        for (Claim claim : this.getInternalClaimsInArea(lesserCorner, greaterCorner)) {
+            ((GDClaim) claim).collectEntityCounters(chunkX, chunkZ, claims);
+        }
+        return claims;
+    }
+
+    /**
+     * Rebuilds the oldest entity counters to correct drift.
+     *
+     * <p>Claims are visited in turn so the cost of a full sweep is spread over
+     * several ticks. Rebuilding corrects entities that moved between claims
+     * or were removed without an event. Claims whose counter was invalidated
+     * are dropped until their next spawn limit check.</p>
+     *
+     * @param maxClaims The max amount of claims to visit
+     */
+    public void reconcileEntityCounters(int maxClaims) {
+        final int tick = NMSUtil.getInstance().getRunningServerTicks();
+        final int count = Math.min(maxClaims, this.entityCounterClaims.size());
+        for (int i = 0; i < count; i++) {
+            final GDClaim claim = this.entityCounterClaims.poll();
+            if (claim.reconcileEntityCounter(tick)) {
+                this.entityCounterClaims.add(claim);
+            } else {
+                claim.entityCounterTracked = false;
+            }
+        }
+        if (this.entityCounterClaims.isEmpty()) {
+            this.countedEntities.clear();
+        }
+    }
+
+    public ClaimIndex getClaimIndex() {
+        return this.claimIndex;
     }
 
     public void save() {
@@ -481,8 +757,15 @@ public void save() {
     public void unload() {
         this.playerDataList.clear();
         this.worldClaims.clear();
+        this.ownerClaimsMap.clear();
+        this.claimNameMap.clear();
+        this.indexedClaimNames.clear();
         this.claimUniqueIdMap.clear();
-        this.chunksToClaimsMap.clear();
+        this.claimIndex.clear();
+        this.snapshotClaimTree.clear();
+        this.changedChildIndexes.clear();
+        this.chunksToClaimColumns.clear();
+        this.claimIndexSnapshot = new ClaimIndexSnapshot(++this.claimIndexVersion, this.snapshotClaimTree.freeze(), null);
         if (this.theWildernessClaim != null) {
             this.theWildernessClaim.unload();
             this.theWildernessClaim = null;
@@ -508,87 +791,158 @@ public Claim getClaimAt(Vector3i pos) {
     }
 
     public Claim getClaimAt(Vector3i pos, GDClaim cachedClaim, GDPlayerData playerData, boolean useBorderBlockRadius) {
+        if (!Bukkit.isPrimaryThread()) {
+            // Permission context calculators and other callers off the main thread only read the published snapshot,
+            // the claim index and column tables are modified by the main thread without locking
+            return this.claimIndexSnapshot.getClaimAt(pos);
+        }
+
         if (cachedClaim != null && !cachedClaim.isWilderness() && cachedClaim.contains(pos, true)) {
             return cachedClaim;
         }
 
-        Set<Claim> claimsInChunk = this.getInternalChunksToClaimsMap().get(BlockUtil.getInstance().asLong(pos.getX() >> 4, pos.getZ() >> 4));
+        int borderBlockRadius = 0;
         if (useBorderBlockRadius && (playerData != null && !playerData.bypassBorderCheck)) {
-            final int borderBlockRadius = GriefDefenderPlugin.getActiveConfig(this.worldUniqueId).getConfig().claim.borderBlockRadius;
-            // if borderBlockRadius > 0, check surrounding chunks
-            if (borderBlockRadius > 0) {
-                for (Direction direction : BlockUtil.getInstance().ORDINAL_SET) {
-                    Vector3i currentPos = pos;
-                    for (int i = 0; i < borderBlockRadius; i++) { // Handle depth
-                        currentPos = BlockUtil.getInstance().getBlockRelative(currentPos, direction); 
-                        Set<Claim> relativeClaims = this.getInternalChunksToClaimsMap().get(BlockUtil.getInstance().asLong(currentPos.getX() >> 4, currentPos.getZ() >> 4));
-                        if (relativeClaims != null) {
-                            if (claimsInChunk == null) {
-                                claimsInChunk = new HashSet<>();
-                            }
-                            claimsInChunk.addAll(relativeClaims);
-                        }
-                    }
-                }
-            }
-        }
-        if (claimsInChunk == null) {
-            return this.getWildernessClaim();
+            // if borderBlockRadius > 0, check surrounding area
+            borderBlockRadius = Math.max(0, GriefDefenderPlugin.getActiveConfig(this.worldUniqueId).getConfig().claim.borderBlockRadius);
         }
 
-        for (Claim claim : claimsInChunk) {
-            GDClaim foundClaim = findClaim((GDClaim) claim, pos, playerData, useBorderBlockRadius);
-            if (foundClaim != null) {
-                return foundClaim;
+        if (borderBlockRadius == 0) {
+            final ChunkClaimColumns claimColumns = this.getClaimColumns(pos.getX() >> 4, pos.getZ() >> 4);
+            // Columns covered by more than one top level claim need a full search
+            if (claimColumns != null && !claimColumns.requiresFullCheck(pos.getX(), pos.getZ())) {
+                final GDClaim owner = claimColumns.getOwner(pos.getX(), pos.getZ());
+                final GDClaim foundClaim = owner == null ? null : findClaim(owner, pos, 0, playerData, useBorderBlockRadius);
+                return foundClaim != null ? foundClaim : this.getWildernessClaim();
             }
         }
 
+        final GDClaim foundClaim = this.claimIndex.findClaimAt(pos, borderBlockRadius, playerData, useBorderBlockRadius);
+        if (foundClaim != null) {
+            return foundClaim;
+        }
+
         // if no claim found, return the world claim
         return this.getWildernessClaim();
     }
 
-    private GDClaim findClaim(GDClaim claim, Vector3i pos, GDPlayerData playerData, boolean useBorderBlockRadius) {
+    /**
+     * Resolves each position to the claim at it in a single pass.
+     *
+     * <p>Positions are visited grouped by chunk and the last claim found
+     * is reused while following positions stay inside it.</p>
+     *
+     * @param positions The block positions
+     * @return The claim at each position, in same order as positions
+     */
+    public GDClaim[] getClaimsAt(Vector3i[] positions) {
+        final GDClaim[] claims = new GDClaim[positions.length];
+        final long[] chunkKeys = new long[positions.length];
+        final int[] order = new int[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            chunkKeys[i] = getChunkKey(positions[i].getX() >> 4, positions[i].getZ() >> 4);
+            order[i] = i;
+        }
+        IntArrays.quickSort(order, (i1, i2) -> Long.compare(chunkKeys[i1], chunkKeys[i2]));
+
+        GDClaim lastClaim = null;
+        for (int index : order) {
+            final Vector3i pos = positions[index];
+            // Last claim can only be reused if none of its children are at position
+            if (lastClaim != null && !lastClaim.isWilderness() && lastClaim.contains(pos, true) && lastClaim.findChildAt(pos, 0, null, false) == null) {
+                claims[index] = lastClaim;
+                continue;
+            }
+            lastClaim = (GDClaim) this.getClaimAt(pos, null, null, false);
+            claims[index] = lastClaim;
+        }
+        return claims;
+    }
+
+    // Column tables are only kept for loaded chunks
+    @Nullable
+    private ChunkClaimColumns getClaimColumns(int chunkX, int chunkZ) {
+        final long chunkKey = getChunkKey(chunkX, chunkZ);
+        ChunkClaimColumns claimColumns = this.chunksToClaimColumns.get(chunkKey);
+        if (claimColumns == null && this.chunksToGpChunks.containsKey(chunkKey)) {
+            claimColumns = new ChunkClaimColumns(chunkX, chunkZ, this.claimIndex);
+            this.chunksToClaimColumns.put(chunkKey, claimColumns);
+        }
+        return claimColumns;
+    }
+
+    static GDClaim findClaim(GDClaim claim, Vector3i pos, int radius, GDPlayerData playerData, boolean useBorderBlockRadius) {
         if (claim.contains(pos, playerData, useBorderBlockRadius)) {
             // when we find a top level claim, if the location is in one of its children,
             // return the child claim, not the top level claim
-            for (Claim childClaim : claim.children) {
-                GDClaim child = (GDClaim) childClaim;
-                if (!child.children.isEmpty()) {
-                    GDClaim innerChild = findClaim(child, pos, playerData, useBorderBlockRadius);
-                    if (innerChild != null) {
-                        return innerChild;
-                    }
-                }
-                // check if child has children (Town -> Basic -> Subdivision)
-                if (child.contains(pos, playerData, useBorderBlockRadius)) {
-                    return child;
-                }
-            }
-            return claim;
+            // children are searched recursively (Town -> Basic -> Subdivision)
+            final GDClaim child = claim.findChildAt(pos, radius, playerData, useBorderBlockRadius);
+            return child != null ? child : claim;
         }
         return null;
     }
 
+    // Used when the name of a claim changes
+    public void updateClaimName(Claim claim) {
+        this.removeClaimName(claim);
+        if (!this.worldClaims.contains(claim)) {
+            return;
+        }
+        final Component claimName = claim.getName().orElse(null);
+        if (claimName == null || claimName == TextComponent.empty()) {
+            return;
+        }
+        final String name = PlainComponentSerializer.INSTANCE.serialize(claimName).toLowerCase(Locale.ROOT);
+        Set<Claim> claimsWithName = this.claimNameMap.get(name);
+        if (claimsWithName == null) {
+            claimsWithName = ConcurrentHashMap.newKeySet();
+            this.claimNameMap.put(name, claimsWithName);
+        }
+        claimsWithName.add(claim);
+        this.indexedClaimNames.put(claim, name);
+    }
+
+    private void removeClaimName(Claim claim) {
+        final String name = this.indexedClaimNames.remove(claim);
+        if (name == null) {
+            return;
+        }
+        final Set<Claim> claimsWithName = this.claimNameMap.get(name);
+        if (claimsWithName != null) {
+            claimsWithName.remove(claim);
+            if (claimsWithName.isEmpty()) {
+                this.claimNameMap.remove(name);
+            }
+        }
+    }
+
     @Override
     public List<Claim> getClaimsByName(String name) {
         List<Claim> claimList = new ArrayList<>();
-        for (Claim worldClaim : this.getWorldClaims()) {
-            Component claimName = worldClaim.getName().orElse(null);
-            if (claimName != null && claimName != TextComponent.empty()) {
-                if (PlainComponentSerializer.INSTANCE.serialize(claimName).equalsIgnoreCase(name)) {
-                    claimList.add(worldClaim);
-                }
-            }
-            // check children
-            for (Claim child : ((GDClaim) worldClaim).getChildren(true)) {
-                if (child.getUniqueId().toString().equals(name)) {
-                    claimList.add(child);
-                }
+        final Set<Claim> claimsWithName = this.claimNameMap.get(name.toLowerCase(Locale.ROOT));
+        if (claimsWithName != null) {
+            claimList.addAll(claimsWithName);
+        }
+        // check children
+        final UUID claimUniqueId = name.length() == 36 ? parseUniqueId(name) : null;
+        if (claimUniqueId != null && claimUniqueId.toString().equals(name)) {
+            final GDClaim child = (GDClaim) this.claimUniqueIdMap.get(claimUniqueId);
+            if (child != null && child.parent != null) {
+                claimList.add(child);
             }
         }
         return claimList;
     }
 
+    @Nullable
+    private static UUID parseUniqueId(String name) {
+        try {
+            return UUID.fromString(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     public void resetPlayerData() {
         // migrate playerdata to new claim block system
         final int migration3dRate = GriefDefenderPlugin.getGlobalConfig().getConfig().playerdata.migrateVolumeRate;
@@ -644,9 +998,14 @@ public GDChunk getChunk(Chunk chunk) {
 
     public void removeChunk(Chunk chunk) {
         this.chunksToGpChunks.remove(getChunkKey(chunk));
+        this.chunksToClaimColumns.remove(getChunkKey(chunk));
     }
 
     private long getChunkKey(Chunk chunk) {
-        return (long) chunk.getX() & 0xffffffffL | ((long) chunk.getZ() & 0xffffffffL) << 32;
+        return getChunkKey(chunk.getX(), chunk.getZ());
+    }
+
+    private long getChunkKey(int chunkX, int chunkZ) {
+        return (long) chunkX & 0xffffffffL | ((long) chunkZ & 0xffffffffL) << 32;
     }
 }
\ No newline at end of file
@@ -948,7 +948,7 @@ private Consumer<CommandSender> createCustomFlagConsumer(GDPermissionUser src, G
                     return;
                 }
 
-                PermissionResult result = GriefDefenderPlugin.getInstance().getPermissionProvider().setPermissionValue(GriefDefenderPlugin.DEFAULT_HOLDER, flag, newValue, newContexts);
+                PermissionResult result = PermissionUtil.getInstance().setPermissionValue(GriefDefenderPlugin.DEFAULT_HOLDER, flag, newValue, newContexts);
             }
 
             // Save after all permission changes have been made
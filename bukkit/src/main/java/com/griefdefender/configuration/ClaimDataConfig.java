@@ -25,11 +25,14 @@
 package com.griefdefender.configuration;
 
 import com.flowpowered.math.vector.Vector3i;
+import com.griefdefender.GriefDefenderPlugin;
 import com.griefdefender.api.Tristate;
 import com.griefdefender.api.claim.ClaimType;
 import com.griefdefender.api.claim.ClaimTypes;
 import com.griefdefender.api.data.EconomyData;
+import com.griefdefender.cache.PermissionDecisionCache;
 import com.griefdefender.claim.GDClaim;
+import com.griefdefender.claim.GDClaimManager;
 import com.griefdefender.configuration.category.ConfigCategory;
 import com.griefdefender.internal.util.BlockUtil;
 
@@ -47,10 +50,14 @@
 public class ClaimDataConfig extends ConfigCategory implements IClaimData {
 
     private boolean requiresSave = false;
+    // Incremented when data is marked for saving or a setter changes flag results, so cached views of it can be revalidated
+    private int modificationCount = 0;
     private Vector3i lesserPos;
     private Vector3i greaterPos;
     private Vector3i spawnPos;
     private ClaimStorageData claimStorage;
+    // Claim using this data, notified when its name changes
+    private GDClaim claim;
 
     @Setting
     private UUID parent;
@@ -293,6 +300,7 @@ public void setExpiration(boolean flag) {
     @Override
     public void setFlagOverrides(boolean flag) {
         this.allowFlagOverrides = flag;
+        this.onDecisionDataChanged();
     }
 
     @Override
@@ -304,6 +312,7 @@ public void setCuboid(boolean cuboid) {
     public void setPvpOverride(Tristate pvp) {
         this.requiresSave = true;
         this.pvpOverride = pvp;
+        this.onDecisionDataChanged();
     }
 
     @Override
@@ -316,6 +325,7 @@ public void setResizable(boolean resizable) {
     public void setType(ClaimType type) {
         this.requiresSave = true;
         this.claimType = type;
+        this.onDecisionDataChanged();
     }
 
     @Override
@@ -328,6 +338,12 @@ public void setDateLastActive(Instant date) {
     public void setName(Component name) {
         this.requiresSave = true;
         this.claimName = name;
+        if (this.claim != null && GriefDefenderPlugin.getInstance().dataStore != null) {
+            final GDClaimManager claimManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(this.claim.getWorldUniqueId());
+            if (claimManager != null) {
+                claimManager.updateClaimName(this.claim);
+            }
+        }
     }
 
     @Override
@@ -360,33 +376,51 @@ public void setGreaterBoundaryCorner(String location) {
     public void setAccessors(List<UUID> accessors) {
         this.requiresSave = true;
         this.accessors = accessors;
+        this.onDecisionDataChanged();
     }
 
     @Override
     public void setBuilders(List<UUID> builders) {
         this.requiresSave = true;
         this.builders = builders;
+        this.onDecisionDataChanged();
     }
 
     @Override
     public void setContainers(List<UUID> containers) {
         this.requiresSave = true;
         this.containers = containers;
+        this.onDecisionDataChanged();
     }
 
     @Override
     public void setManagers(List<UUID> coowners) {
         this.requiresSave = true;
         this.managers = coowners;
+        this.onDecisionDataChanged();
     }
 
     public boolean requiresSave() {
         return this.requiresSave;
     }
 
+    public int getModificationCount() {
+        return this.modificationCount;
+    }
+
     @Override
     public void setRequiresSave(boolean flag) {
         this.requiresSave = flag;
+        if (flag) {
+            // Trust lists may have been edited in place, cached flag decisions pick this up on the next tick
+            this.modificationCount++;
+        }
+    }
+
+    // Drops cached flag decisions, which may also depend on this data through child claims
+    private void onDecisionDataChanged() {
+        this.modificationCount++;
+        PermissionDecisionCache.invalidateAll();
     }
 
     @Override
@@ -404,12 +438,14 @@ public boolean doesInheritParent() {
     public void setInheritParent(boolean flag) {
         this.requiresSave = true;
         this.inheritParent = flag;
+        this.onDecisionDataChanged();
     }
 
     @Override
     public void setOwnerUniqueId(UUID newClaimOwner) {
         this.requiresSave = true;
         this.ownerUniqueId = newClaimOwner;
+        this.onDecisionDataChanged();
     }
 
     @Override
@@ -422,6 +458,10 @@ public void setClaimStorageData(ClaimStorageData claimStorage) {
         this.claimStorage = claimStorage;
     }
 
+    public void setClaim(GDClaim claim) {
+        this.claim = claim;
+    }
+
     @Override
     public void save() {
         this.claimStorage.save();
@@ -453,6 +493,7 @@ public void setRequiresClaimBlocks(boolean requiresClaimBlocks) {
     public void setParent(UUID uuid) {
         this.requiresSave = true;
         this.parent = uuid;
+        this.onDecisionDataChanged();
     }
 
     @Override
@@ -34,6 +34,8 @@ public interface IClaimData extends ClaimData {
 
     boolean requiresSave();
 
+    int getModificationCount();
+
     boolean isExpired();
 
     List<UUID> getAccessors();
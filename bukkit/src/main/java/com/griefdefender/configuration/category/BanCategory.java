@@ -42,7 +42,10 @@ public class BanCategory extends ConfigCategory {
     private Map<String, Component> entities = new HashMap<>();
     @Setting(value = "items")
     private Map<String, Component> items = new HashMap<>();
-    
+    // Compiled ban maps, rebuilt after bans change
+    private BanMatcher blockMatcher;
+    private BanMatcher entityMatcher;
+    private BanMatcher itemMatcher;
 
     public Map<String, Component> getBlockMap() {
         return this.blocks;
@@ -56,6 +59,40 @@ public Map<String, Component> getItemMap() {
         return this.items;
     }
 
+    /**
+     * Gets the reason of the block ban matching an id, including wildcard bans.
+     *
+     * @param id The block id
+     * @return The ban reason, or null if not banned
+     */
+    public Component getBlockBanMatch(String id) {
+        BanMatcher matcher = this.blockMatcher;
+        if (matcher == null || !matcher.isValid(this.blocks)) {
+            // Block checks stop at first match
+            matcher = new BanMatcher(this.blocks, this::getBlockBanReason, true);
+            this.blockMatcher = matcher;
+        }
+        return matcher.getReason(id);
+    }
+
+    public Component getEntityBanMatch(String id) {
+        BanMatcher matcher = this.entityMatcher;
+        if (matcher == null || !matcher.isValid(this.entities)) {
+            matcher = new BanMatcher(this.entities, this::getEntityBanReason, false);
+            this.entityMatcher = matcher;
+        }
+        return matcher.getReason(id);
+    }
+
+    public Component getItemBanMatch(String id) {
+        BanMatcher matcher = this.itemMatcher;
+        if (matcher == null || !matcher.isValid(this.items)) {
+            matcher = new BanMatcher(this.items, this::getItemBanReason, false);
+            this.itemMatcher = matcher;
+        }
+        return matcher.getReason(id);
+    }
+
     public boolean isBlockBanned(String id) {
         if (id == null) {
             return false;
@@ -77,6 +114,7 @@ public void addBlockBan(String id, Component reason) {
             id = "minecraft:" + id;
         }
         this.blocks.put(id, reason);
+        this.blockMatcher = null;
     }
 
     public void removeBlockBan(String id) {
@@ -87,6 +125,7 @@ public void removeBlockBan(String id) {
             id = "minecraft:" + id;
         }
         this.blocks.remove(id);
+        this.blockMatcher = null;
     }
 
     public Component getBlockBanReason(String id) {
@@ -117,6 +156,7 @@ public void addEntityBan(String id, Component reason) {
             reason = TextComponent.empty();
         }
         this.entities.put(id, reason);
+        this.entityMatcher = null;
     }
 
     public void removeEntityBan(String id) {
@@ -127,6 +167,7 @@ public void removeEntityBan(String id) {
             id = "minecraft:" + id;
         }
         this.entities.remove(id);
+        this.entityMatcher = null;
     }
 
     public Component getEntityBanReason(String id) {
@@ -160,6 +201,7 @@ public void addItemBan(String id, Component reason) {
             id = "minecraft:" + id;
         }
         this.items.put(id, reason);
+        this.itemMatcher = null;
     }
 
     public void removeItemBan(String id) {
@@ -170,6 +212,7 @@ public void removeItemBan(String id) {
             id = "minecraft:" + id;
         }
         this.items.remove(id);
+        this.itemMatcher = null;
     }
 
     public Component getItemBanReason(String id) {
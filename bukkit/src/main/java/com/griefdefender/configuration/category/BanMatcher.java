@@ -0,0 +1,153 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.configuration.category;
+
+import it.unimi.dsi.fastutil.chars.Char2ObjectOpenHashMap;
+import net.kyori.text.Component;
+import org.apache.commons.io.FilenameUtils;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Compiled form of a ban map.
+ *
+ * <p>Exact ids are found by hash lookup. Wildcard ids are stored in a trie
+ * by their literal prefix, so only wildcards whose prefix matches the target id
+ * are tested. When several bans match, the winner is the same one a scan of the
+ * map in iteration order would pick. Reasons are read from the map on each
+ * match, so only changes to the ban ids require a new matcher.</p>
+ */
+final class BanMatcher {
+
+    private final Map<String, Component> banMap;
+    private final Function<String, Component> reasonLookup;
+    private final int size;
+    private final int idHash;
+    private final boolean firstMatchWins;
+    private final Map<String, Ban> exactBans = new HashMap<>();
+    private final Node wildcardBans = new Node();
+
+    /**
+     * Creates a matcher for a ban map.
+     *
+     * @param banMap The ban map
+     * @param reasonLookup The function used to get the reason of a ban id
+     * @param firstMatchWins Whether the first match in iteration order wins, otherwise the last
+     */
+    BanMatcher(Map<String, Component> banMap, Function<String, Component> reasonLookup, boolean firstMatchWins) {
+        this.banMap = banMap;
+        this.reasonLookup = reasonLookup;
+        this.size = banMap.size();
+        this.idHash = banMap.keySet().hashCode();
+        this.firstMatchWins = firstMatchWins;
+        int order = 0;
+        for (String banId : banMap.keySet()) {
+            final Ban ban = new Ban(banId, order++);
+            final int wildcardIndex = getWildcardIndex(banId);
+            if (wildcardIndex == -1) {
+                this.exactBans.put(banId, ban);
+                continue;
+            }
+
+            Node node = this.wildcardBans;
+            for (int i = 0; i < wildcardIndex; i++) {
+                Node child = node.children.get(banId.charAt(i));
+                if (child == null) {
+                    child = new Node();
+                    node.children.put(banId.charAt(i), child);
+                }
+                node = child;
+            }
+            node.bans.add(ban);
+        }
+    }
+
+    boolean isValid(Map<String, Component> banMap) {
+        // Maps exposed through the API may be edited in place
+        return this.banMap == banMap && this.size == banMap.size() && this.idHash == banMap.keySet().hashCode();
+    }
+
+    /**
+     * Gets the reason of the ban matching an id.
+     *
+     * @param id The id
+     * @return The reason, or null if no ban matches or the matching ban has no reason
+     */
+    @Nullable
+    Component getReason(String id) {
+        Ban match = this.exactBans.get(id);
+        Node node = this.wildcardBans;
+        int index = 0;
+        while (node != null) {
+            for (Ban ban : node.bans) {
+                if ((match == null || this.isPreferred(ban, match)) && FilenameUtils.wildcardMatch(id, ban.id)) {
+                    match = ban;
+                }
+            }
+            if (index >= id.length()) {
+                break;
+            }
+            node = node.children.get(id.charAt(index++));
+        }
+
+        return match == null ? null : this.reasonLookup.apply(match.id);
+    }
+
+    private boolean isPreferred(Ban ban, Ban match) {
+        return this.firstMatchWins ? ban.order < match.order : ban.order > match.order;
+    }
+
+    private static int getWildcardIndex(String id) {
+        for (int i = 0; i < id.length(); i++) {
+            final char c = id.charAt(i);
+            if (c == '*' || c == '?') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static class Ban {
+
+        private final String id;
+        private final int order;
+
+        Ban(String id, int order) {
+            this.id = id;
+            this.order = order;
+        }
+    }
+
+    private static class Node {
+
+        private final Char2ObjectOpenHashMap<Node> children = new Char2ObjectOpenHashMap<>();
+        private final List<Ban> bans = new ArrayList<>();
+    }
+}
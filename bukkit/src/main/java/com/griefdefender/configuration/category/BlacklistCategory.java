@@ -33,6 +33,7 @@
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 
@@ -48,6 +49,10 @@ public class BlacklistCategory extends ConfigCategory {
     @Setting(value = "global-target", comment = "A global list of target id's that are ignored by events. \nNote: This only affects events where the id specified is the target.")
     public List<String> globalTargetBlacklist = new ArrayList<>();
 
+    private final Map<String, IdListMatcher> flagMatchers = new ConcurrentHashMap<>();
+    private IdListMatcher globalSourceMatcher;
+    private IdListMatcher globalTargetMatcher;
+
     public List<String> getGlobalSourceBlacklist() {
         return this.globalSourceBlacklist;
     }
@@ -68,4 +73,52 @@ public BlacklistCategory() {
     public List<String> getFlagBlacklist(String flag) {
         return this.flagIdBlacklist.get(flag);
     }
+
+    /**
+     * Gets whether an id, or the id without meta, is in the flag blacklist.
+     *
+     * @param flag The flag id
+     * @param id The id
+     * @param idNoMeta The id without meta
+     * @return Whether the id is blacklisted
+     */
+    public boolean isFlagBlacklisted(String flag, String id, String idNoMeta) {
+        final List<String> flagList = this.flagIdBlacklist.get(flag);
+        if (flagList == null || flagList.isEmpty()) {
+            return false;
+        }
+
+        IdListMatcher matcher = this.flagMatchers.get(flag);
+        if (matcher == null || !matcher.isValid(flagList)) {
+            matcher = new IdListMatcher(flagList);
+            this.flagMatchers.put(flag, matcher);
+        }
+        return matcher.matches(id) || matcher.matches(idNoMeta);
+    }
+
+    public boolean isGlobalSourceBlacklisted(String id, String idNoMeta) {
+        if (this.globalSourceBlacklist == null) {
+            return false;
+        }
+
+        IdListMatcher matcher = this.globalSourceMatcher;
+        if (matcher == null || !matcher.isValid(this.globalSourceBlacklist)) {
+            matcher = new IdListMatcher(this.globalSourceBlacklist);
+            this.globalSourceMatcher = matcher;
+        }
+        return matcher.matches(id) || matcher.matches(idNoMeta);
+    }
+
+    public boolean isGlobalTargetBlacklisted(String id, String idNoMeta) {
+        if (this.globalTargetBlacklist == null) {
+            return false;
+        }
+
+        IdListMatcher matcher = this.globalTargetMatcher;
+        if (matcher == null || !matcher.isValid(this.globalTargetBlacklist)) {
+            matcher = new IdListMatcher(this.globalTargetBlacklist);
+            this.globalTargetMatcher = matcher;
+        }
+        return matcher.matches(id) || matcher.matches(idNoMeta);
+    }
 }
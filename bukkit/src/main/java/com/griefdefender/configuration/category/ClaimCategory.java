@@ -72,6 +72,11 @@ public class ClaimCategory extends ConfigCategory {
     public int taxApplyHour = 12;
     @Setting(value = "bank-transaction-log-limit")
     public int bankTransactionLogLimit = 60;
+    @Setting(value = "spatial-index", comment = "The index used to look up top level claims by location. (quadtree, chunk) Default: quadtree"
+        + "\nThe 'quadtree' index stores each claim once so memory usage does not grow with claim size."
+        + "\nThe 'chunk' index registers each claim in every chunk it covers. It is only recommended for worlds without large claims."
+        + "\nNote: This setting is only read from global config and requires a server restart.")
+    public String spatialIndex = "quadtree";
 
     public ClaimCategory() {
 
@@ -0,0 +1,124 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.configuration.category;
+
+import it.unimi.dsi.fastutil.chars.Char2ObjectOpenHashMap;
+import org.apache.commons.io.FilenameUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compiled form of an id list.
+ *
+ * <p>Exact ids are found by hash lookup. Wildcard ids are stored in a trie
+ * by their literal prefix, so only wildcards whose prefix matches the target id
+ * are tested.</p>
+ */
+final class IdListMatcher {
+
+    private final List<String> idList;
+    private final int size;
+    private final int idHash;
+    private final Set<String> exactIds = new HashSet<>();
+    private final Node wildcardIds = new Node();
+
+    IdListMatcher(List<String> idList) {
+        this.idList = idList;
+        this.size = idList.size();
+        this.idHash = idList.hashCode();
+        for (String id : idList) {
+            if (id == null) {
+                continue;
+            }
+            final int wildcardIndex = getWildcardIndex(id);
+            if (wildcardIndex == -1) {
+                this.exactIds.add(id);
+                continue;
+            }
+
+            Node node = this.wildcardIds;
+            for (int i = 0; i < wildcardIndex; i++) {
+                Node child = node.children.get(id.charAt(i));
+                if (child == null) {
+                    child = new Node();
+                    node.children.put(id.charAt(i), child);
+                }
+                node = child;
+            }
+            node.wildcards.add(id);
+        }
+    }
+
+    boolean isValid(List<String> idList) {
+        // Lists exposed through the API may be edited in place
+        return this.idList == idList && this.size == idList.size() && this.idHash == idList.hashCode();
+    }
+
+    /**
+     * Gets whether any id in the list matches the id.
+     *
+     * @param id The id
+     * @return Whether the id matches
+     */
+    boolean matches(String id) {
+        if (this.exactIds.contains(id)) {
+            return true;
+        }
+
+        Node node = this.wildcardIds;
+        int index = 0;
+        while (node != null) {
+            for (String wildcard : node.wildcards) {
+                if (FilenameUtils.wildcardMatch(id, wildcard)) {
+                    return true;
+                }
+            }
+            if (index >= id.length()) {
+                break;
+            }
+            node = node.children.get(id.charAt(index++));
+        }
+        return false;
+    }
+
+    private static int getWildcardIndex(String id) {
+        for (int i = 0; i < id.length(); i++) {
+            final char c = id.charAt(i);
+            if (c == '*' || c == '?') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static class Node {
+
+        private final Char2ObjectOpenHashMap<Node> children = new Char2ObjectOpenHashMap<>();
+        private final List<String> wildcards = new ArrayList<>();
+    }
+}
@@ -40,6 +40,7 @@
 import com.griefdefender.api.permission.option.Options;
 import com.griefdefender.cache.EventResultCache;
 import com.griefdefender.cache.MessageCache;
+import com.griefdefender.cache.PermissionHolderCache;
 import com.griefdefender.claim.GDClaim;
 import com.griefdefender.claim.GDClaimManager;
 import com.griefdefender.configuration.GriefDefenderConfig;
@@ -163,14 +164,27 @@ public void onBlockPistonExtend(BlockPistonExtendEvent event) {
             }
         }
 
-        for (Block block : event.getBlocks()) {
-            Location location = BlockUtil.getInstance().getBlockRelative(block.getLocation(), event.getDirection());
-            targetClaim = this.storage.getClaimAt(location, targetClaim);
-            if (targetClaim.isWilderness()) {
+        final List<Block> blocks = event.getBlocks();
+        final List<Location> locations = new ArrayList<>(blocks.size());
+        for (Block block : blocks) {
+            locations.add(BlockUtil.getInstance().getBlockRelative(block.getLocation(), event.getDirection()));
+        }
+        final GDClaim[] targetClaims = this.storage.getClaimsAt(world, locations);
+        final List<Block> claimBlocks = new ArrayList<>(blocks.size());
+        final List<Location> claimLocations = new ArrayList<>(blocks.size());
+        final List<GDClaim> claims = new ArrayList<>(blocks.size());
+        for (int i = 0; i < blocks.size(); i++) {
+            if (targetClaims[i].isWilderness()) {
                 continue;
             }
+            claimBlocks.add(blocks.get(i));
+            claimLocations.add(locations.get(i));
+            claims.add(targetClaims[i]);
+        }
 
-            if (handleBlockBreak(event, location, targetClaim, event.getBlock(), block, user, false)) {
+        final Tristate[] results = GDPermissionManager.getInstance().getFinalPermissions(event, claimLocations, claims.toArray(new GDClaim[0]), Flags.BLOCK_BREAK, event.getBlock(), claimBlocks, user, TrustTypes.BUILDER, true);
+        for (Tristate result : results) {
+            if (result == Tristate.FALSE) {
                 event.setCancelled(true);
                 lastBlockPreCancelled = true;
                 return;
@@ -233,15 +247,27 @@ public void onStructureGrow(StructureGrowEvent event) {
             return;
         }
 
-        for (BlockState blockstate : event.getBlocks()) {
-            final Location location = blockstate.getLocation();
-            final GDClaim targetClaim = this.storage.getClaimAt(location);
-
-            if (targetClaim.isWilderness()) {
+        final List<BlockState> blockstates = event.getBlocks();
+        final List<Location> locations = new ArrayList<>(blockstates.size());
+        for (BlockState blockstate : blockstates) {
+            locations.add(blockstate.getLocation());
+        }
+        final GDClaim[] targetClaims = this.storage.getClaimsAt(world, locations);
+        final List<BlockState> claimBlockstates = new ArrayList<>(blockstates.size());
+        final List<Location> claimLocations = new ArrayList<>(blockstates.size());
+        final List<GDClaim> claims = new ArrayList<>(blockstates.size());
+        for (int i = 0; i < blockstates.size(); i++) {
+            if (targetClaims[i].isWilderness()) {
                 continue;
             }
-    
-            final Tristate result = GDPermissionManager.getInstance().getFinalPermission(event, location, targetClaim, Flags.BLOCK_GROW, null, blockstate, event.getPlayer(), TrustTypes.BUILDER, true);
+            claimBlockstates.add(blockstates.get(i));
+            claimLocations.add(locations.get(i));
+            claims.add(targetClaims[i]);
+        }
+
+        final GDPermissionUser user = PermissionHolderCache.getInstance().getOrCreateUser(event.getPlayer());
+        final Tristate[] results = GDPermissionManager.getInstance().getFinalPermissions(event, claimLocations, claims.toArray(new GDClaim[0]), Flags.BLOCK_GROW, null, claimBlockstates, user, TrustTypes.BUILDER, true);
+        for (Tristate result : results) {
             if (result == Tristate.FALSE) {
                 event.setCancelled(true);
                 return;
@@ -424,13 +450,17 @@ public void onExplosionEvent(BlockExplodeEvent event) {
 
         final GDPermissionUser user = CauseContextHelper.getEventUser(event.getBlock().getLocation());
         GDTimings.EXPLOSION_EVENT.startTiming();
-        GDClaim targetClaim = null;
+        final List<Block> blocks = event.blockList();
+        final List<Location> locations = new ArrayList<>(blocks.size());
+        for (Block block : blocks) {
+            locations.add(block.getLocation());
+        }
+        final GDClaim[] targetClaims = GriefDefenderPlugin.getInstance().dataStore.getClaimsAt(world, locations);
+        final Tristate[] results = GDPermissionManager.getInstance().getFinalPermissions(event, locations, targetClaims, Flags.EXPLOSION_BLOCK, source, blocks, user, null, true);
         final List<Block> filteredLocations = new ArrayList<>();
-        for (Block block : event.blockList()) {
-            final Location location = block.getLocation();
-            targetClaim =  GriefDefenderPlugin.getInstance().dataStore.getClaimAt(location, targetClaim);
-            Tristate result = GDPermissionManager.getInstance().getFinalPermission(event, location, targetClaim, Flags.EXPLOSION_BLOCK, source, location.getBlock(), user, true);
-            if (result == Tristate.FALSE) {
+        for (int i = 0; i < blocks.size(); i++) {
+            final Block block = blocks.get(i);
+            if (results[i] == Tristate.FALSE) {
                 // Avoid lagging server from large explosions.
                 if (event.blockList().size() > 100) {
                     event.setCancelled(true);
@@ -27,6 +27,7 @@
 import com.flowpowered.math.vector.Vector3i;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.reflect.TypeToken;
+import com.griefdefender.GDBootstrap;
 import com.griefdefender.GDPlayerData;
 import com.griefdefender.GDTimings;
 import com.griefdefender.GriefDefenderPlugin;
@@ -54,6 +55,7 @@
 import com.griefdefender.util.CauseContextHelper;
 import com.griefdefender.util.PlayerUtil;
 import net.kyori.text.Component;
+import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.World;
@@ -83,9 +85,13 @@
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.event.entity.EntityDamageEvent;
 import org.bukkit.event.entity.EntityDamageEvent.DamageCause;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.entity.EntityEvent;
 import org.bukkit.event.entity.EntityExplodeEvent;
 import org.bukkit.event.entity.EntitySpawnEvent;
 import org.bukkit.event.entity.ExplosionPrimeEvent;
+import org.bukkit.event.entity.ItemDespawnEvent;
+import org.bukkit.event.entity.ItemMergeEvent;
 import org.bukkit.event.entity.SlimeSplitEvent;
 import org.bukkit.event.entity.SpawnerSpawnEvent;
 import org.bukkit.event.hanging.HangingBreakByEntityEvent;
@@ -239,13 +245,17 @@ public void onEntityExplodeEvent(EntityExplodeEvent event) {
         }
 
         GDTimings.EXPLOSION_EVENT.startTiming();
-        GDClaim targetClaim = null;
+        final List<Block> blocks = event.blockList();
+        final List<Location> locations = new ArrayList<>(blocks.size());
+        for (Block block : blocks) {
+            locations.add(block.getLocation());
+        }
+        final GDClaim[] targetClaims = GriefDefenderPlugin.getInstance().dataStore.getClaimsAt(world, locations);
+        final Tristate[] results = GDPermissionManager.getInstance().getFinalPermissions(event, locations, targetClaims, Flags.EXPLOSION_BLOCK, source, blocks, user, null, true);
         final List<Block> filteredLocations = new ArrayList<>();
-        for (Block block : event.blockList()) {
-            final Location location = block.getLocation();
-            targetClaim =  GriefDefenderPlugin.getInstance().dataStore.getClaimAt(location, targetClaim);
-            final Tristate result = GDPermissionManager.getInstance().getFinalPermission(event, location, targetClaim, Flags.EXPLOSION_BLOCK, source, location.getBlock(), user, true);
-            if (result == Tristate.FALSE) {
+        for (int i = 0; i < blocks.size(); i++) {
+            final Block block = blocks.get(i);
+            if (results[i] == Tristate.FALSE) {
                 // Avoid lagging server from large explosions.
                 if (event.blockList().size() > 100) {
                     event.setCancelled(true);
@@ -598,6 +608,63 @@ public void onEntitySpawn(EntitySpawnEvent event) {
     //public void onEntitySpawn(EntitySpawnEvent event) {
     //}
 
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntitySpawnMonitor(EntitySpawnEvent event) {
+        final GDClaimManager claimWorldManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(event.getEntity().getWorld().getUID());
+        claimWorldManager.addCountedEntity(event.getEntity());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityDeath(EntityDeathEvent event) {
+        // Players stay in the world after death
+        if (event.getEntity() instanceof Player) {
+            return;
+        }
+        this.onEntityRemove(event.getEntity());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onItemDespawn(ItemDespawnEvent event) {
+        this.onEntityRemove(event.getEntity());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onItemMerge(ItemMergeEvent event) {
+        this.onEntityRemove(event.getEntity());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onVehicleDestroyMonitor(VehicleDestroyEvent event) {
+        this.onEntityRemove(event.getVehicle());
+    }
+
+    /**
+     * Registers the Paper entity removal event when available.
+     *
+     * <p>It covers removals without a Bukkit event such as item pickups and
+     * plugins calling {@link Entity#remove()}. Removing an entity more than
+     * once from the entity counters has no effect.</p>
+     */
+    public void registerEntityRemoveEvent() {
+        final Class<? extends Event> eventClass;
+        try {
+            eventClass = Class.forName("com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent").asSubclass(Event.class);
+        } catch (ClassNotFoundException e) {
+            return;
+        }
+
+        Bukkit.getPluginManager().registerEvent(eventClass, this, EventPriority.MONITOR, (listener, event) -> {
+            if (eventClass.isInstance(event)) {
+                this.onEntityRemove(((EntityEvent) event).getEntity());
+            }
+        }, GDBootstrap.getInstance());
+    }
+
+    public void onEntityRemove(Entity entity) {
+        final GDClaimManager claimWorldManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(entity.getWorld().getUID());
+        claimWorldManager.removeCountedEntity(entity);
+    }
+
     public void handleEntitySpawn(Event event, Object source, Entity entity) {
         if (!GDFlags.ENTITY_SPAWN) {
             return;
@@ -27,6 +27,9 @@
 import com.griefdefender.GriefDefenderPlugin;
 import com.griefdefender.cache.PermissionHolderCache;
 import com.griefdefender.permission.GDPermissionHolder;
+import com.griefdefender.permission.flag.FlagContextIndex;
+import com.griefdefender.permission.flag.FlagDefaultTable;
+import com.griefdefender.provider.LuckPermsProvider;
 
 import net.luckperms.api.LuckPerms;
 import net.luckperms.api.event.group.GroupDataRecalculateEvent;
@@ -34,22 +37,30 @@
 
 public class LuckPermsEventHandler {
 
+    private final LuckPermsProvider luckPermsProvider;
     private final LuckPerms luckPermsApi;
 
-    public LuckPermsEventHandler(LuckPerms luckPermsApi) {
-        this.luckPermsApi = luckPermsApi;
+    public LuckPermsEventHandler(LuckPermsProvider luckPermsProvider) {
+        this.luckPermsProvider = luckPermsProvider;
+        this.luckPermsApi = luckPermsProvider.getApi();
         this.luckPermsApi.getEventBus().subscribe(GroupDataRecalculateEvent.class, this::onGroupDataRecalculate);
         this.luckPermsApi.getEventBus().subscribe(UserDataRecalculateEvent.class, this::onUserDataRecalculate);
     }
 
     public void onGroupDataRecalculate(GroupDataRecalculateEvent event) {
+        this.luckPermsProvider.invalidatePermissionIndex(event.getGroup().getName());
+        FlagDefaultTable.getInstance().invalidatePermanentFlags();
+        FlagContextIndex.getInstance().invalidate();
         final GDPermissionHolder holder = PermissionHolderCache.getInstance().getOrCreateGroup(event.getGroup().getName());
-        PermissionHolderCache.getInstance().getOrCreatePermissionCache(holder).invalidateAll();
+        PermissionHolderCache.getInstance().invalidatePermissionCache(holder);
+        PermissionHolderCache.getInstance().invalidateOptionCache(holder);
     }
 
     public void onUserDataRecalculate(UserDataRecalculateEvent event) {
+        this.luckPermsProvider.invalidatePermissionIndex(event.getUser().getUniqueId().toString());
         final GDPermissionHolder holder = PermissionHolderCache.getInstance().getOrCreateUser(event.getUser().getUniqueId());
-        PermissionHolderCache.getInstance().getOrCreatePermissionCache(holder).invalidateAll();
-        PermissionHolderCache.getInstance().getOrCreatePermissionCache(GriefDefenderPlugin.DEFAULT_HOLDER).invalidateAll();
+        PermissionHolderCache.getInstance().invalidatePermissionCache(holder);
+        PermissionHolderCache.getInstance().invalidatePermissionCache(GriefDefenderPlugin.DEFAULT_HOLDER);
+        PermissionHolderCache.getInstance().invalidateOptionCache(holder);
     }
 }
@@ -72,6 +72,7 @@ public void onWorldSave(WorldSaveEvent event) {
     @EventHandler(priority = EventPriority.LOWEST)
     public void onChunkLoad(ChunkLoadEvent event) {
         final GDClaimManager claimWorldManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(event.getWorld().getUID());
+        claimWorldManager.addCountedEntities(event.getChunk());
         final GDChunk gpChunk = claimWorldManager.getChunk(event.getChunk());
         if (gpChunk != null) {
             try {
@@ -85,6 +86,7 @@ public void onChunkLoad(ChunkLoadEvent event) {
     @EventHandler(priority = EventPriority.LOWEST)
     public void onChunkUnload(ChunkUnloadEvent event) {
         final GDClaimManager claimWorldManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(event.getWorld().getUID());
+        claimWorldManager.removeCountedEntities(event.getChunk());
         final GDChunk gpChunk = claimWorldManager.getChunk(event.getChunk());
         if (gpChunk != null) {
             if (gpChunk.getTrackedShortPlayerPositions().size() > 0) {
@@ -173,7 +173,7 @@ public static void migrate(World world) throws FileNotFoundException, ClassNotFo
                                             newClaim.setType(type);
                                         }
                                     }
-                                    ((GDClaim) parent).children.add(newClaim);
+                                    ((GDClaim) parent).addChild(newClaim);
                                     newClaim.parent = (GDClaim) parent;
                                     GriefDefenderPlugin.getInstance().getLogger().info("Found parent region '" + parent.getName().orElse(TextComponent.of("unknown")) + "'. Set current region '" + rname + "' as it's child.");
                                 } else {
@@ -55,6 +55,8 @@
 import com.griefdefender.api.permission.option.type.WeatherTypes;
 import com.griefdefender.cache.EventResultCache;
 import com.griefdefender.cache.MessageCache;
+import com.griefdefender.cache.OptionQueryKey;
+import com.griefdefender.cache.PermissionDecisionCache;
 import com.griefdefender.cache.PermissionHolderCache;
 import com.griefdefender.claim.GDClaim;
 import com.griefdefender.command.CommandHelper;
@@ -67,6 +69,8 @@
 import com.griefdefender.internal.registry.GDEntityType;
 import com.griefdefender.internal.registry.ItemTypeRegistryModule;
 import com.griefdefender.internal.util.NMSUtil;
+import com.griefdefender.permission.flag.FlagContextIndex;
+import com.griefdefender.permission.flag.FlagDefaultTable;
 import com.griefdefender.registry.FlagRegistryModule;
 import com.griefdefender.util.PermissionUtil;
 
@@ -75,7 +79,6 @@
 import net.kyori.text.adapter.bukkit.TextAdapter;
 import net.kyori.text.format.TextColor;
 
-import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
@@ -86,6 +89,7 @@
 import org.bukkit.block.CreatureSpawner;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Item;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.Vehicle;
@@ -97,17 +101,18 @@
 import org.bukkit.event.player.PlayerTeleportEvent.TeleportCause;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -117,15 +122,9 @@ public class GDPermissionManager implements PermissionManager {
 
     private static GDPermissionManager instance;
     public boolean blacklistCheck = false;
-    private Event currentEvent;
-    private Location eventLocation;
-    private GDPermissionHolder eventSubject;
-    private GDPlayerData eventPlayerData;
-    private String eventSourceId = "none";
-    private String eventTargetId = "none";
-    private Set<Context> eventContexts = new HashSet<>();
-    private Component eventMessage;
     private static final Pattern PATTERN_META = Pattern.compile("\\.[\\d+]*$");
+    // Identifiers of non player and non item entities only depend on their type
+    private final Map<EntityType, String> entityIdCache = new ConcurrentHashMap<>();
     private static final List<Context> CONTEXT_LIST = Arrays.asList(
             ClaimContexts.ADMIN_DEFAULT_CONTEXT, ClaimContexts.ADMIN_OVERRIDE_CONTEXT,
             ClaimContexts.BASIC_DEFAULT_CONTEXT, ClaimContexts.BASIC_OVERRIDE_CONTEXT,
@@ -179,20 +178,94 @@ public Tristate getFinalPermission(Event event, Location location, Set<Context>
             return Tristate.TRUE;
         }
 
+        final PermissionEvaluation evaluation = PermissionEvaluation.begin();
+        try {
+            return this.getFinalPermission(evaluation, event, location, contexts, claim, flag, source, target, permissionHolder, type, checkOverride);
+        } finally {
+            PermissionEvaluation.end(evaluation);
+        }
+    }
+
+    /**
+     * Gets the final permission of a flag for many targets of the same source,
+     * such as the blocks of an explosion.
+     *
+     * <p>Block and block state targets with the same id and state in the same
+     * claim share a single check. Other targets are checked one by one.</p>
+     *
+     * @param event The event
+     * @param locations The location of each target
+     * @param claims The claim of each target
+     * @param flag The flag
+     * @param source The source
+     * @param targets The targets
+     * @param permissionHolder The permission holder
+     * @param type The trust type to check, if any
+     * @param checkOverride Whether to check flag overrides
+     * @return The result of each target, in target order
+     */
+    public Tristate[] getFinalPermissions(Event event, List<Location> locations, GDClaim[] claims, Flag flag, Object source, List<?> targets, GDPermissionHolder permissionHolder, TrustType type, boolean checkOverride) {
+        final Tristate[] results = new Tristate[targets.size()];
+        // Debug logs every check, so nothing is shared while it is active
+        final Map<GDClaim, Map<String, Tristate>> claimResults = GriefDefenderPlugin.debugActive ? null : new HashMap<>();
+        for (int i = 0; i < results.length; i++) {
+            final Object target = targets.get(i);
+            final String targetKey = claimResults == null ? null : getBatchTargetKey(target);
+            if (targetKey == null) {
+                results[i] = this.getFinalPermission(event, locations.get(i), claims[i], flag, source, target, permissionHolder, type, checkOverride);
+                continue;
+            }
+
+            Map<String, Tristate> targetResults = claimResults.get(claims[i]);
+            if (targetResults == null) {
+                targetResults = new HashMap<>();
+                claimResults.put(claims[i], targetResults);
+            }
+            Tristate result = targetResults.get(targetKey);
+            if (result == null) {
+                result = this.getFinalPermission(event, locations.get(i), claims[i], flag, source, target, permissionHolder, type, checkOverride);
+                targetResults.put(targetKey, result);
+            }
+            results[i] = result;
+        }
+        return results;
+    }
+
+    // Returns a key that is equal for targets with the same permission contexts, or null if the target is not supported
+    @Nullable
+    private static String getBatchTargetKey(Object target) {
+        if (target instanceof Block) {
+            final Block block = (Block) target;
+            return BlockTypeRegistryModule.getInstance().getNMSKey(block) + "|" + NMSUtil.getInstance().getBlockDataString(block);
+        }
+        if (target instanceof BlockState) {
+            // Block properties of a state target are read from the block at its location
+            final BlockState blockstate = (BlockState) target;
+            return BlockTypeRegistryModule.getInstance().getNMSKey(blockstate) + "|" + NMSUtil.getInstance().getBlockDataString(blockstate.getBlock());
+        }
+        return null;
+    }
+
+    private Tristate getFinalPermission(PermissionEvaluation evaluation, Event event, Location location, Set<Context> contexts, Claim claim, Flag flag, Object source, Object target, GDPermissionHolder permissionHolder, TrustType type, boolean checkOverride) {
+        final Tristate result = this.getFinalPermissionResult(evaluation, event, location, contexts, claim, flag, source, target, permissionHolder, type, checkOverride);
+        if (evaluation.cacheDecision) {
+            evaluation.eventPlayerData.decisionCache.put(claim, flag, type, checkOverride, contexts, result, evaluation.eventMessage);
+        }
+        return result;
+    }
+
+    private Tristate getFinalPermissionResult(PermissionEvaluation evaluation, Event event, Location location, Set<Context> contexts, Claim claim, Flag flag, Object source, Object target, GDPermissionHolder permissionHolder, TrustType type, boolean checkOverride) {
         GDPlayerData playerData = null;
         final GDPermissionUser user = permissionHolder instanceof GDPermissionUser ? (GDPermissionUser) permissionHolder : null;
-        this.eventSubject = user;
-        this.eventMessage = null;
+        evaluation.eventSubject = user;
         if (permissionHolder != null) {
             if (user != null) {
                 playerData = GriefDefenderPlugin.getInstance().dataStore.getOrCreatePlayerData(claim.getWorldUniqueId(), user.getUniqueId());
             }
         }
 
-        this.currentEvent = event;
-        this.eventLocation = location;
-        // refresh contexts
-        this.eventContexts = new HashSet<>();
+        evaluation.currentEvent = event;
+        evaluation.eventLocation = location;
         /*final ItemStackSnapshot usedItem = event.getContext().get(EventContextKeys.USED_ITEM).orElse(null);
         final DamageType damageType = event.getContext().get(EventContextKeys.DAMAGE_TYPE).orElse(null);
         if (usedItem != null) {
@@ -221,9 +294,20 @@ public Tristate getFinalPermission(Event event, Location location, Set<Context>
         contexts.addAll(sourceContexts);
         contexts.addAll(targetContexts);
         contexts.add(((GDClaim) claim).getWorldContext());
-        this.eventContexts = contexts;
-        this.eventPlayerData = playerData;
+        evaluation.eventContexts = contexts;
+        evaluation.eventPlayerData = playerData;
         final String targetPermission = flag.getPermission();
+        // Spawn limits depend on entity counts and debug logs every check, so neither is cached
+        if (user != null && playerData != null && flag != Flags.ENTITY_SPAWN && !GriefDefenderPlugin.debugActive
+                && !playerData.ignoreClaims && !playerData.debugClaimPermissions) {
+            final PermissionDecisionCache.Decision decision = playerData.decisionCache.get(claim, flag, type, checkOverride, contexts);
+            if (decision != null) {
+                evaluation.eventMessage = decision.getMessage();
+                this.updateEventResultCache(evaluation, claim, targetPermission, decision.getResult());
+                return decision.getResult();
+            }
+            evaluation.cacheDecision = true;
+        }
        /* if (!targetId.isEmpty()) {
             String[] parts = targetId.split(":");
             String targetMod = parts[0];
@@ -257,7 +341,7 @@ public Tristate getFinalPermission(Event event, Location location, Set<Context>
                                     "limit", spawnLimit));
                             GriefDefenderPlugin.sendMessage(user.getOnlinePlayer(), message);
                         }
-                        return this.processResult(claim, flag.getPermission(), "spawn-limit", Tristate.FALSE, this.eventSubject);
+                        return this.processResult(claim, flag.getPermission(), "spawn-limit", Tristate.FALSE, evaluation.eventSubject);
                     }
                 }
             }
@@ -302,7 +386,7 @@ public Tristate getFinalPermission(Event event, Location location, Set<Context>
     private Tristate getUserPermission(GDPermissionHolder holder, Claim claim, String permission) {
         final List<Claim> inheritParents = claim.getInheritedParents();
         final Set<Context> contexts = new HashSet<>();
-        contexts.addAll(this.eventContexts);
+        contexts.addAll(PermissionEvaluation.current().eventContexts);
 
         for (Claim parentClaim : inheritParents) {
             GDClaim parent = (GDClaim) parentClaim;
@@ -343,12 +427,12 @@ private Tristate getClaimFlagPermission(Claim claim, String permission) {
     private Tristate getClaimFlagPermission(Claim claim, String permission, Set<Context> contexts) {
         if (contexts.isEmpty()) {
             final List<Claim> inheritParents = claim.getInheritedParents();
-            contexts.addAll(this.eventContexts);
+            contexts.addAll(PermissionEvaluation.current().eventContexts);
             for (Claim parentClaim : inheritParents) {
                 GDClaim parent = (GDClaim) parentClaim;
                 // check parent context
                 contexts.add(parent.getContext());
-                Tristate value = PermissionUtil.getInstance().getPermissionValue((GDClaim) claim, GriefDefenderPlugin.DEFAULT_HOLDER, permission, contexts);
+                Tristate value = this.getDefaultPermissionValue((GDClaim) claim, permission, contexts);
                 if (value != Tristate.UNDEFINED) {
                     return processResult(claim, permission, value, GriefDefenderPlugin.DEFAULT_HOLDER);
                 }
@@ -358,7 +442,7 @@ private Tristate getClaimFlagPermission(Claim claim, String permission, Set<Cont
             contexts.add(claim.getContext());
         }
 
-        Tristate value = PermissionUtil.getInstance().getPermissionValue((GDClaim) claim, GriefDefenderPlugin.DEFAULT_HOLDER, permission, contexts);
+        Tristate value = this.getDefaultPermissionValue((GDClaim) claim, permission, contexts);
         if (value != Tristate.UNDEFINED) {
             return processResult(claim, permission, value, GriefDefenderPlugin.DEFAULT_HOLDER);
         }
@@ -368,14 +452,24 @@ private Tristate getClaimFlagPermission(Claim claim, String permission, Set<Cont
 
     // Only uses world and claim type contexts
     private Tristate getFlagDefaultPermission(Claim claim, String permission, Set<Context> contexts) {
+        final FlagDefaultTable defaultTable = FlagDefaultTable.getInstance();
+        if (defaultTable.canResolve(permission)) {
+            // Nothing persisted for this flag on default holder so only config defaults apply
+            Tristate value = defaultTable.getValue(claim.getDefaultTypeContext(), permission, contexts);
+            if (value == Tristate.UNDEFINED) {
+                value = defaultTable.getValue(ClaimContexts.GLOBAL_DEFAULT_CONTEXT, permission, contexts);
+            }
+            return processResult(claim, permission, value, GriefDefenderPlugin.DEFAULT_HOLDER);
+        }
+
         contexts.add(claim.getDefaultTypeContext());
-        Tristate value = PermissionUtil.getInstance().getPermissionValue((GDClaim) claim, GriefDefenderPlugin.DEFAULT_HOLDER, permission, contexts);
+        Tristate value = this.getDefaultPermissionValue((GDClaim) claim, permission, contexts);
         if (value != Tristate.UNDEFINED) {
             return processResult(claim, permission, value, GriefDefenderPlugin.DEFAULT_HOLDER);
         }
         contexts.remove(claim.getDefaultTypeContext());
         contexts.add(ClaimContexts.GLOBAL_DEFAULT_CONTEXT);
-        value = PermissionUtil.getInstance().getPermissionValue((GDClaim) claim, GriefDefenderPlugin.DEFAULT_HOLDER, permission, contexts);
+        value = this.getDefaultPermissionValue((GDClaim) claim, permission, contexts);
         if (value != Tristate.UNDEFINED) {
             return processResult(claim, permission, value, GriefDefenderPlugin.DEFAULT_HOLDER);
         }
@@ -407,9 +501,14 @@ private Tristate getFlagOverride(Claim claim, GDPermissionHolder permissionHolde
         contexts.add(((GDClaim) claim).getWorldContext());
         contexts.add(claim.getOverrideClaimContext());
         contexts.add(ClaimContexts.GLOBAL_OVERRIDE_CONTEXT);
-        contexts.addAll(this.eventContexts);
+        contexts.addAll(PermissionEvaluation.current().eventContexts);
 
-        Tristate value = PermissionUtil.getInstance().getPermissionValue((GDClaim) claim, permissionHolder, flagPermission, contexts);
+        Tristate value = Tristate.UNDEFINED;
+        if (permissionHolder == GriefDefenderPlugin.DEFAULT_HOLDER) {
+            value = this.getDefaultPermissionValue((GDClaim) claim, flagPermission, contexts);
+        } else {
+            value = PermissionUtil.getInstance().getPermissionValue((GDClaim) claim, permissionHolder, flagPermission, contexts);
+        }
        /* if (value == Tristate.UNDEFINED) {
             // Check claim specific override
             contexts = PermissionUtils.getActiveContexts(subject, playerData, claim);
@@ -419,7 +518,7 @@ private Tristate getFlagOverride(Claim claim, GDPermissionHolder permissionHolde
         }*/
         if (value != Tristate.UNDEFINED) {
             if (value == Tristate.FALSE) {
-                this.eventMessage = MessageCache.getInstance().PERMISSION_OVERRIDE_DENY;
+                PermissionEvaluation.current().eventMessage = MessageCache.getInstance().PERMISSION_OVERRIDE_DENY;
             }
             return processResult(claim, flagPermission, value, permissionHolder);
         }
@@ -430,16 +529,25 @@ private Tristate getFlagOverride(Claim claim, GDPermissionHolder permissionHolde
         return Tristate.UNDEFINED;
     }
 
+    private Tristate getDefaultPermissionValue(GDClaim claim, String permission, Set<Context> contexts) {
+        // Skip provider query if no node on default holder can match the claim contexts
+        if (!FlagContextIndex.getInstance().canMatch(permission, contexts)) {
+            return Tristate.UNDEFINED;
+        }
+        return PermissionUtil.getInstance().getPermissionValue(claim, GriefDefenderPlugin.DEFAULT_HOLDER, permission, contexts);
+    }
+
     public Tristate processResult(Claim claim, String permission, Tristate permissionValue, GDPermissionHolder permissionHolder) {
         return processResult(claim, permission, null, permissionValue, permissionHolder);
     }
 
     public Tristate processResult(Claim claim, String permission, String trust, Tristate permissionValue, GDPermissionHolder permissionHolder) {
+        final PermissionEvaluation evaluation = PermissionEvaluation.current();
         if (GriefDefenderPlugin.debugActive) {
             // Use the event subject always if available
             // This prevents debug showing 'default' for users
-            if (eventSubject != null) {
-                permissionHolder = eventSubject;
+            if (evaluation.eventSubject != null) {
+                permissionHolder = evaluation.eventSubject;
             } else if (permissionHolder == null) {
                 final Object source = GDCauseStackManager.getInstance().getCurrentCause().root();
                 if (source instanceof GDPermissionUser) {
@@ -449,23 +557,27 @@ public Tristate processResult(Claim claim, String permission, String trust, Tris
                 }
             }
 
-            if (this.currentEvent != null && (this.currentEvent instanceof BlockPhysicsEvent)) {
+            if (evaluation.currentEvent != null && (evaluation.currentEvent instanceof BlockPhysicsEvent)) {
                 if (((GDClaim) claim).getWorld().getTime() % 100 != 0L) {
                     return permissionValue;
                 }
             }
 
-            GriefDefenderPlugin.addEventLogEntry(this.currentEvent, this.eventLocation, this.eventSourceId, this.eventTargetId, this.eventSubject == null ? permissionHolder : this.eventSubject, permission, trust, permissionValue);
+            GriefDefenderPlugin.addEventLogEntry(evaluation.currentEvent, evaluation.eventLocation, evaluation.eventSourceId, evaluation.eventTargetId, evaluation.eventSubject == null ? permissionHolder : evaluation.eventSubject, permission, trust, permissionValue);
         }
 
 
-        if (eventPlayerData != null && eventPlayerData.eventResultCache != null) {
+        this.updateEventResultCache(evaluation, claim, permission, permissionValue);
+        return permissionValue;
+    }
+
+    private void updateEventResultCache(PermissionEvaluation evaluation, Claim claim, String permission, Tristate permissionValue) {
+        if (evaluation.eventPlayerData != null && evaluation.eventPlayerData.eventResultCache != null) {
             final Flag flag = FlagRegistryModule.getInstance().getById(permission).orElse(null);
             if (flag != null) {
-                eventPlayerData.eventResultCache = new EventResultCache((GDClaim) claim, flag.getName().toLowerCase(), permissionValue);
+                evaluation.eventPlayerData.eventResultCache = new EventResultCache((GDClaim) claim, flag.getName().toLowerCase(), permissionValue);
             }
         }
-        return permissionValue;
     }
 
     public String getPermissionIdentifier(Object obj) {
@@ -476,6 +588,13 @@ public String getPermissionIdentifier(Object obj, boolean isSource) {
         if (obj != null) {
             if (obj instanceof Entity) {
                 Entity targetEntity = (Entity) obj;
+                final boolean cacheable = !(targetEntity instanceof Player) && !(targetEntity instanceof Item);
+                if (cacheable) {
+                    final String cachedId = this.entityIdCache.get(targetEntity.getType());
+                    if (cachedId != null) {
+                        return populateEventSourceTarget(cachedId, isSource);
+                    }
+                }
                 final String name = targetEntity.getType().getName() == null ? targetEntity.getType().name().toLowerCase() : targetEntity.getType().getName();
                 final GDEntityType type = EntityTypeRegistryModule.getInstance().getById(name).orElse(null);
                 if (type == null) {
@@ -491,6 +610,9 @@ public String getPermissionIdentifier(Object obj, boolean isSource) {
                 if (targetEntity instanceof Item) {
                     id = ((Item) targetEntity).getItemStack().getType().name().toLowerCase();
                 }
+                if (cacheable) {
+                    this.entityIdCache.put(targetEntity.getType(), id);
+                }
 
                 return populateEventSourceTarget(id, isSource);
             } else if (obj instanceof Block) {
@@ -630,9 +752,10 @@ public boolean isObjectIdBanned(GDClaim claim, String id, BanType type) {
             return false;
         }
 
+        final GDPermissionHolder eventSubject = PermissionEvaluation.current().eventSubject;
         GDPermissionUser user = null;
-        if (this.eventSubject != null && this.eventSubject instanceof GDPermissionUser) {
-            user = (GDPermissionUser) this.eventSubject;
+        if (eventSubject != null && eventSubject instanceof GDPermissionUser) {
+            user = (GDPermissionUser) eventSubject;
             if (user.getInternalPlayerData() != null && user.getInternalPlayerData().canIgnoreClaim(claim)) {
                 return false;
             }
@@ -642,35 +765,22 @@ public boolean isObjectIdBanned(GDClaim claim, String id, BanType type) {
         Component banReason = null;
         final BanCategory banCategory = GriefDefenderPlugin.getGlobalConfig().getConfig().bans;
         if (type == BanType.BLOCK) {
-            for (Entry<String, Component> banId : banCategory.getBlockMap().entrySet()) {
-                if (FilenameUtils.wildcardMatch(id, banId.getKey())) {
-                    banReason = GriefDefenderPlugin.getGlobalConfig().getConfig().bans.getBlockBanReason(banId.getKey());
-                    if (banReason != null && banReason.equals(TextComponent.empty())) {
-                        banReason = MessageStorage.MESSAGE_DATA.getMessage(MessageStorage.PERMISSION_BAN_BLOCK, 
-                                ImmutableMap.of("id", TextComponent.of(id, TextColor.GOLD)));
-                    }
-                    break;
-                }
+            banReason = banCategory.getBlockBanMatch(id);
+            if (banReason != null && banReason.equals(TextComponent.empty())) {
+                banReason = MessageStorage.MESSAGE_DATA.getMessage(MessageStorage.PERMISSION_BAN_BLOCK, 
+                        ImmutableMap.of("id", TextComponent.of(id, TextColor.GOLD)));
             }
         } else if (type == BanType.ITEM) {
-            for (Entry<String, Component> banId : banCategory.getItemMap().entrySet()) {
-                if (FilenameUtils.wildcardMatch(id, banId.getKey())) {
-                    banReason = GriefDefenderPlugin.getGlobalConfig().getConfig().bans.getItemBanReason(banId.getKey());
-                    if (banReason != null && banReason.equals(TextComponent.empty())) {
-                        banReason = MessageStorage.MESSAGE_DATA.getMessage(MessageStorage.PERMISSION_BAN_ITEM, 
-                                ImmutableMap.of("id", TextComponent.of(id, TextColor.GOLD)));
-                    }
-                }
+            banReason = banCategory.getItemBanMatch(id);
+            if (banReason != null && banReason.equals(TextComponent.empty())) {
+                banReason = MessageStorage.MESSAGE_DATA.getMessage(MessageStorage.PERMISSION_BAN_ITEM, 
+                        ImmutableMap.of("id", TextComponent.of(id, TextColor.GOLD)));
             }
         } else if (type == BanType.ENTITY) {
-            for (Entry<String, Component> banId : banCategory.getEntityMap().entrySet()) {
-                if (FilenameUtils.wildcardMatch(id, banId.getKey())) {
-                    banReason = GriefDefenderPlugin.getGlobalConfig().getConfig().bans.getEntityBanReason(banId.getKey());
-                    if (banReason != null && banReason.equals(TextComponent.empty())) {
-                        banReason = MessageStorage.MESSAGE_DATA.getMessage(MessageStorage.PERMISSION_BAN_ENTITY, 
-                                ImmutableMap.of("id", TextComponent.of(id, TextColor.GOLD)));
-                    }
-                }
+            banReason = banCategory.getEntityBanMatch(id);
+            if (banReason != null && banReason.equals(TextComponent.empty())) {
+                banReason = MessageStorage.MESSAGE_DATA.getMessage(MessageStorage.PERMISSION_BAN_ENTITY, 
+                        ImmutableMap.of("id", TextComponent.of(id, TextColor.GOLD)));
             }
         }
 
@@ -688,7 +798,7 @@ public boolean isObjectIdBanned(GDClaim claim, String id, BanType type) {
         }
         if (banReason != null) {
             // Detected ban
-            this.processResult(claim, permission, "banned", Tristate.FALSE, this.eventSubject);
+            this.processResult(claim, permission, "banned", Tristate.FALSE, eventSubject);
             return true;
         }
         return false;
@@ -751,8 +861,9 @@ public void addCustomEntityTypeContexts(Entity targetEntity, String id, Set<Cont
     }
 
     private void checkPetContext(Entity targetEntity, String id, Set<Context> contexts) {
-        if (this.eventSubject != null && this.eventSubject instanceof GDPermissionUser) {
-            final GDPermissionUser user = (GDPermissionUser) this.eventSubject;
+        final GDPermissionHolder eventSubject = PermissionEvaluation.current().eventSubject;
+        if (eventSubject != null && eventSubject instanceof GDPermissionUser) {
+            final GDPermissionUser user = (GDPermissionUser) eventSubject;
             final UUID uuid = NMSUtil.getInstance().getTameableOwnerUUID(targetEntity);
             if (uuid != null && uuid.equals(user.getUniqueId())) {
                 contexts.add(new Context(ContextGroupKeys.PET, id));
@@ -761,8 +872,9 @@ private void checkPetContext(Entity targetEntity, String id, Set<Context> contex
     }
 
     private void addPlayerContexts(Player player, Set<Context> contexts) {
-        if(!PermissionUtil.getInstance().containsKey(contexts, "used_item") && NMSUtil.getInstance().getActiveItem(player, this.currentEvent) != null) {
-            final ItemStack stack = NMSUtil.getInstance().getActiveItem(player, this.currentEvent);
+        final Event currentEvent = PermissionEvaluation.current().currentEvent;
+        if(!PermissionUtil.getInstance().containsKey(contexts, "used_item") && NMSUtil.getInstance().getActiveItem(player, currentEvent) != null) {
+            final ItemStack stack = NMSUtil.getInstance().getActiveItem(player, currentEvent);
             if (stack.getType() != Material.AIR) {
                 contexts.add(new Context("used_item", getPermissionIdentifier(stack)));
                 if (stack.getItemMeta() != null && stack.getItemMeta().getDisplayName() != null) {
@@ -858,6 +970,10 @@ public String getPermission(Object source, Object target, String flagPermission)
     }
 
     public String getIdentifierWithoutMeta(String targetId) {
+        if (!hasMetaSuffix(targetId)) {
+            return targetId;
+        }
+
         Matcher m = PATTERN_META.matcher(targetId);
         String targetMeta = "";
         if (m.find()) {
@@ -867,19 +983,33 @@ public String getIdentifierWithoutMeta(String targetId) {
         return targetId;
     }
 
+    // Cheap pre-check for PATTERN_META, which can only match if the id ends with
+    // one of its characters or a line terminator
+    private static boolean hasMetaSuffix(String id) {
+        if (id.isEmpty()) {
+            return false;
+        }
+        final char c = id.charAt(id.length() - 1);
+        if (c == '.' || c == '+' || (c >= '0' && c <= '9')) {
+            return true;
+        }
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
     private Set<Context> populateEventSourceTargetContext(Set<Context> contexts, String id, boolean isSource) {
         if (!id.contains(":")) {
             id = "minecraft:" + id;
         }
         final String[] parts = id.split(":");
         final String modId = parts[0];
+        final PermissionEvaluation evaluation = PermissionEvaluation.current();
         if (isSource) {
-            this.eventSourceId = id.toLowerCase();
-            contexts.add(new Context("source", this.eventSourceId));
+            evaluation.eventSourceId = id.toLowerCase();
+            contexts.add(new Context("source", evaluation.eventSourceId));
             contexts.add(new Context("source", modId + ":any"));
         } else {
-            this.eventTargetId = id.toLowerCase();
-            contexts.add(new Context("target", this.eventTargetId));
+            evaluation.eventTargetId = id.toLowerCase();
+            contexts.add(new Context("target", evaluation.eventTargetId));
             contexts.add(new Context("target", modId + ":any"));
         }
         return contexts;
@@ -900,9 +1030,9 @@ private String populateEventSourceTarget(String id, boolean isSource) {
             }
         }
         if (isSource) {
-            this.eventSourceId = id.toLowerCase();
+            PermissionEvaluation.current().eventSourceId = id.toLowerCase();
         } else {
-            this.eventTargetId = id.toLowerCase();
+            PermissionEvaluation.current().eventTargetId = id.toLowerCase();
         }
 
         return id;
@@ -1097,6 +1227,27 @@ public <T> T getInternalOptionValue(TypeToken<T> type, GDPermissionHolder holder
             PermissionUtil.getInstance().addActiveContexts(contexts, holder, playerData, claim);
         }
 
+        if (option.multiValued()) {
+            // lists are not cached as callers may modify them
+            return this.resolveOptionValue(type, holder, option, claim, claimType, contexts);
+        }
+
+        final OptionQueryKey key = PermissionHolderCache.getInstance().createOptionQueryKey(type, holder, option, claim, claimType, contexts);
+        T value = (T) PermissionHolderCache.getInstance().getOptionValue(holder, key);
+        if (value != null) {
+            return value;
+        }
+
+        // Resolving modifies contexts
+        final OptionQueryKey storedKey = key.immutableCopy();
+        value = this.resolveOptionValue(type, holder, option, claim, claimType, contexts);
+        if (value != null) {
+            PermissionHolderCache.getInstance().putOptionValue(holder, storedKey, value);
+        }
+        return value;
+    }
+
+    private <T> T resolveOptionValue(TypeToken<T> type, GDPermissionHolder holder, Option<T> option, Claim claim, ClaimType claimType, Set<Context> contexts) {
         if (!option.isGlobal() && (claim != null || claimType != null)) {
             // check claim
             if (claim != null) {
@@ -1313,7 +1464,7 @@ public Optional<Option> getOption(String value) {
     }
 
     public Component getEventMessage() {
-        return this.eventMessage;
+        return PermissionEvaluation.current().eventMessage;
     }
 
     @Override
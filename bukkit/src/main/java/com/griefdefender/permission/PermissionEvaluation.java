@@ -0,0 +1,88 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.permission;
+
+import com.griefdefender.GDPlayerData;
+import com.griefdefender.api.permission.Context;
+import net.kyori.text.Component;
+import org.bukkit.Location;
+import org.bukkit.event.Event;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * State of a single permission check in {@link GDPermissionManager}.
+ *
+ * <p>Each check gets its own evaluation so checks nested inside another
+ * check, or running on other threads, do not overwrite each other.</p>
+ */
+final class PermissionEvaluation {
+
+    // Check in progress on each thread, or the last completed check
+    private static final ThreadLocal<PermissionEvaluation> CURRENT = ThreadLocal.withInitial(PermissionEvaluation::new);
+
+    Event currentEvent;
+    Location eventLocation;
+    GDPermissionHolder eventSubject;
+    GDPlayerData eventPlayerData;
+    String eventSourceId = "none";
+    String eventTargetId = "none";
+    Set<Context> eventContexts = new HashSet<>();
+    Component eventMessage;
+    // Whether the final decision is stored in the player's decision cache
+    boolean cacheDecision;
+    // Whether a check is running with this evaluation
+    boolean inProgress;
+    // Check this one is nested in, restored when this check ends
+    private PermissionEvaluation parent;
+
+    static PermissionEvaluation current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Starts a check on the current thread.
+     *
+     * @return The evaluation of the check, to pass to {@link #end(PermissionEvaluation)}
+     */
+    static PermissionEvaluation begin() {
+        final PermissionEvaluation parent = CURRENT.get();
+        final PermissionEvaluation evaluation = new PermissionEvaluation();
+        evaluation.inProgress = true;
+        evaluation.parent = parent.inProgress ? parent : null;
+        CURRENT.set(evaluation);
+        return evaluation;
+    }
+
+    static void end(PermissionEvaluation evaluation) {
+        evaluation.inProgress = false;
+        // Keep a completed top level check readable, such as its event message
+        if (evaluation.parent != null) {
+            CURRENT.set(evaluation.parent);
+            evaluation.parent = null;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.permission;
+
+import com.griefdefender.api.Tristate;
+import org.apache.commons.io.FilenameUtils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Permission map compiled for wildcard lookups.
+ *
+ * <p>Keys without wildcards are found by hash. Wildcard keys are stored in a
+ * trie over the dotted segments before their first wildcard, so a lookup only
+ * checks keys whose literal prefix matches the permission. When several keys
+ * match, the first one in the iteration order of the source map wins, exactly
+ * as a linear scan with {@link FilenameUtils#wildcardMatch(String, String)}
+ * would.</p>
+ */
+public final class WildcardPermissionMap {
+
+    private final String[] keys;
+    private final boolean[] values;
+    // Key without wildcard -> position in source map
+    private final Map<String, Integer> exactKeys = new HashMap<>();
+    private final Node root = new Node();
+
+    public WildcardPermissionMap(Map<String, Boolean> permissions) {
+        this.keys = new String[permissions.size()];
+        this.values = new boolean[permissions.size()];
+        int index = 0;
+        for (Map.Entry<String, Boolean> mapEntry : permissions.entrySet()) {
+            final String key = mapEntry.getKey();
+            if (key == null || mapEntry.getValue() == null) {
+                continue;
+            }
+
+            this.keys[index] = key;
+            this.values[index] = mapEntry.getValue();
+            final int wildcardIndex = indexOfWildcard(key);
+            if (wildcardIndex == -1) {
+                this.exactKeys.put(key, index);
+            } else {
+                this.getOrCreateNode(key, wildcardIndex).add(index);
+            }
+            index++;
+        }
+    }
+
+    /**
+     * Gets the value of the first key matching the permission.
+     *
+     * @param permission The permission
+     * @return The value, or undefined if no key matches
+     */
+    public Tristate getValue(String permission) {
+        int result = Integer.MAX_VALUE;
+        final Integer exactIndex = this.exactKeys.get(permission);
+        if (exactIndex != null) {
+            result = exactIndex;
+        }
+
+        Node node = this.root;
+        int start = 0;
+        while (node != null) {
+            // indexes are in ascending order so the first match is the best in node
+            for (int i = 0; i < node.size && node.indexes[i] < result; i++) {
+                final int index = node.indexes[i];
+                if (FilenameUtils.wildcardMatch(permission, this.keys[index])) {
+                    result = index;
+                    break;
+                }
+            }
+            if (node.children == null) {
+                break;
+            }
+            final int end = permission.indexOf('.', start);
+            if (end == -1) {
+                break;
+            }
+            node = node.children.get(permission.substring(start, end));
+            start = end + 1;
+        }
+
+        if (result == Integer.MAX_VALUE) {
+            return Tristate.UNDEFINED;
+        }
+        return Tristate.fromBoolean(this.values[result]);
+    }
+
+    // Walks the complete segments before the first wildcard
+    private Node getOrCreateNode(String key, int wildcardIndex) {
+        Node node = this.root;
+        int start = 0;
+        int end = key.indexOf('.');
+        while (end != -1 && end < wildcardIndex) {
+            if (node.children == null) {
+                node.children = new HashMap<>();
+            }
+            final String segment = key.substring(start, end);
+            Node child = node.children.get(segment);
+            if (child == null) {
+                child = new Node();
+                node.children.put(segment, child);
+            }
+            node = child;
+            start = end + 1;
+            end = key.indexOf('.', start);
+        }
+        return node;
+    }
+
+    private static int indexOfWildcard(String key) {
+        for (int i = 0; i < key.length(); i++) {
+            final char c = key.charAt(i);
+            if (c == '*' || c == '?') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static final class Node {
+
+        private int[] indexes = new int[2];
+        private int size;
+        private Map<String, Node> children;
+
+        private void add(int index) {
+            if (this.size == this.indexes.length) {
+                this.indexes = Arrays.copyOf(this.indexes, this.size * 2);
+            }
+            this.indexes[this.size++] = index;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.permission.flag;
+
+import com.google.common.collect.ImmutableSet;
+import com.griefdefender.GriefDefenderPlugin;
+import com.griefdefender.api.permission.Context;
+import com.griefdefender.util.PermissionUtil;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Indexes the claim contexts of permissions on the default holder, so flag checks
+ * can skip provider queries for claims, claim types and overrides that have no
+ * matching node.
+ *
+ * <p>Only claim contexts are indexed. Nodes using any other context are treated
+ * as matching, so a skipped query could never have returned a value.</p>
+ */
+public class FlagContextIndex {
+
+    private static final Set<String> CLAIM_CONTEXT_KEYS = ImmutableSet.of("gd_claim", "gd_claim_default", "gd_claim_override");
+    private static FlagContextIndex instance;
+
+    private volatile Index index = null;
+    private final AtomicInteger generation = new AtomicInteger();
+
+    public static FlagContextIndex getInstance() {
+        return instance;
+    }
+
+    static {
+        instance = new FlagContextIndex();
+    }
+
+    /**
+     * Gets whether a node on default holder may match a permission query.
+     *
+     * @param permission The permission
+     * @param contexts The query contexts
+     * @return Whether the query can return a value
+     */
+    public boolean canMatch(String permission, Set<Context> contexts) {
+        Index index = this.index;
+        if (index == null) {
+            index = this.buildIndex();
+        }
+        if (index.wildcards.canMatch(contexts)) {
+            return true;
+        }
+        final Map<String, PermissionContexts> indexedPermissions = index.permissions;
+        return PermissionNodes.anyNodeApplies(permission, node -> {
+            final PermissionContexts permissionContexts = indexedPermissions.get(node);
+            return permissionContexts != null && permissionContexts.canMatch(contexts);
+        });
+    }
+
+    public void invalidate() {
+        this.generation.incrementAndGet();
+        this.index = null;
+    }
+
+    private Index buildIndex() {
+        final int generation = this.generation.get();
+        final Index index = new Index();
+        // Includes both permanent and transient nodes
+        final Map<Set<Context>, Map<String, Boolean>> permissions = PermissionUtil.getInstance().getAllPermissions(GriefDefenderPlugin.DEFAULT_HOLDER);
+        for (Map.Entry<Set<Context>, Map<String, Boolean>> mapEntry : permissions.entrySet()) {
+            final Set<Context> claimContexts = new HashSet<>();
+            for (Context context : mapEntry.getKey()) {
+                if (CLAIM_CONTEXT_KEYS.contains(context.getKey())) {
+                    claimContexts.add(context);
+                }
+            }
+            for (String permission : mapEntry.getValue().keySet()) {
+                if (permission.startsWith("group.")) {
+                    // Groups may be inherited in any context
+                    index.wildcards.add(new HashSet<>());
+                } else if (PermissionNodes.mayMatchAny(permission)) {
+                    index.wildcards.add(claimContexts);
+                } else {
+                    index.permissions.computeIfAbsent(permission, k -> new PermissionContexts()).add(claimContexts);
+                }
+            }
+        }
+        // Discard result if permissions changed while it was built
+        if (this.generation.get() == generation) {
+            this.index = index;
+        }
+        return index;
+    }
+
+    private static class Index {
+
+        private final Map<String, PermissionContexts> permissions = new HashMap<>();
+        private final PermissionContexts wildcards = new PermissionContexts();
+    }
+
+    private static class PermissionContexts {
+
+        // Whether a node has no claim context
+        private boolean unscoped = false;
+        // Nodes with a single claim context
+        private final Set<Context> contexts = new HashSet<>();
+        // Nodes with more than one claim context
+        private final List<Set<Context>> compoundContexts = new ArrayList<>();
+
+        private void add(Set<Context> claimContexts) {
+            if (claimContexts.isEmpty()) {
+                this.unscoped = true;
+            } else if (claimContexts.size() == 1) {
+                this.contexts.addAll(claimContexts);
+            } else {
+                this.compoundContexts.add(claimContexts);
+            }
+        }
+
+        private boolean canMatch(Set<Context> queryContexts) {
+            if (this.unscoped) {
+                return true;
+            }
+            if (!this.contexts.isEmpty()) {
+                for (Context context : queryContexts) {
+                    if (this.contexts.contains(context)) {
+                        return true;
+                    }
+                }
+            }
+            for (Set<Context> claimContexts : this.compoundContexts) {
+                if (queryContexts.containsAll(claimContexts)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.permission.flag;
+
+import com.griefdefender.GriefDefenderPlugin;
+import com.griefdefender.api.Tristate;
+import com.griefdefender.api.permission.Context;
+import com.griefdefender.api.permission.flag.Flag;
+import com.griefdefender.api.permission.flag.Flags;
+import com.griefdefender.util.PermissionUtil;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds the flag defaults from global config that are pushed to the default holder
+ * as transient permissions, so default resolution does not need to query the
+ * permission provider.
+ *
+ * <p>Persisted permissions on the default holder with a claim default context take
+ * precedence over the transient defaults, so the table is not used for those flags.</p>
+ */
+public class FlagDefaultTable {
+
+    // Marks persisted permissions which may match any flag
+    private static final String WILDCARD = "*";
+    private static FlagDefaultTable instance;
+
+    // default type context -> flag permission -> default value
+    private final Map<Context, Map<String, DefaultValue>> defaults = new ConcurrentHashMap<>();
+    // flag permissions persisted on default holder with a claim default context
+    private volatile Set<String> permanentFlags = null;
+    private final AtomicInteger permanentFlagsGeneration = new AtomicInteger();
+
+    public static FlagDefaultTable getInstance() {
+        return instance;
+    }
+
+    static {
+        instance = new FlagDefaultTable();
+    }
+
+    public void setDefault(Context defaultContext, Flag flag, boolean value) {
+        DefaultValue defaultValue = new DefaultValue(Tristate.fromBoolean(value));
+        if (flag == Flags.ENTITY_DAMAGE) {
+            // allow monsters to be attacked by default
+            defaultValue = new DefaultValue(defaultValue.value, FlagContexts.TARGET_TYPE_MONSTER, Tristate.TRUE);
+        }
+        this.defaults.computeIfAbsent(defaultContext, k -> new ConcurrentHashMap<>()).put(flag.getPermission(), defaultValue);
+    }
+
+    /**
+     * Gets whether the default value of a flag permission can be resolved from this table.
+     *
+     * @param permission The flag permission
+     * @return Whether the default holder has no persisted default for permission
+     */
+    public boolean canResolve(String permission) {
+        Set<String> permanentFlags = this.permanentFlags;
+        if (permanentFlags == null) {
+            permanentFlags = this.findPermanentFlags();
+        }
+        return !permanentFlags.contains(WILDCARD) && !PermissionNodes.anyNodeApplies(permission, permanentFlags::contains);
+    }
+
+    public Tristate getValue(Context defaultContext, String permission, Set<Context> contexts) {
+        final Map<String, DefaultValue> flagDefaults = this.defaults.get(defaultContext);
+        if (flagDefaults == null) {
+            return Tristate.UNDEFINED;
+        }
+        final DefaultValue defaultValue = flagDefaults.get(permission);
+        if (defaultValue == null) {
+            return Tristate.UNDEFINED;
+        }
+        if (defaultValue.refinedContext != null && contexts.contains(defaultValue.refinedContext)) {
+            return defaultValue.refinedValue;
+        }
+        return defaultValue.value;
+    }
+
+    public void invalidatePermanentFlags() {
+        this.permanentFlagsGeneration.incrementAndGet();
+        this.permanentFlags = null;
+    }
+
+    private Set<String> findPermanentFlags() {
+        final int generation = this.permanentFlagsGeneration.get();
+        final Set<String> permanentFlags = new HashSet<>();
+        final Map<Set<Context>, Map<String, Boolean>> permanentPermissions = PermissionUtil.getInstance().getPermanentPermissions(GriefDefenderPlugin.DEFAULT_HOLDER);
+        for (Map.Entry<Set<Context>, Map<String, Boolean>> mapEntry : permanentPermissions.entrySet()) {
+            // Nodes without a claim default context were already checked before falling back to defaults
+            if (!containsDefaultContext(mapEntry.getKey())) {
+                continue;
+            }
+            for (String permission : mapEntry.getValue().keySet()) {
+                if (PermissionNodes.mayMatchAny(permission)) {
+                    permanentFlags.add(WILDCARD);
+                }
+                permanentFlags.add(permission);
+            }
+        }
+        // Discard result if permissions changed while it was built
+        if (this.permanentFlagsGeneration.get() == generation) {
+            this.permanentFlags = permanentFlags;
+        }
+        return permanentFlags;
+    }
+
+    private static boolean containsDefaultContext(Set<Context> contexts) {
+        for (Context context : contexts) {
+            if (context.getKey().equals("gd_claim_default")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class DefaultValue {
+
+        private final Tristate value;
+        // A more specific default that applies when its context is present, such as monster targets
+        private final Context refinedContext;
+        private final Tristate refinedValue;
+
+        DefaultValue(Tristate value) {
+            this(value, null, Tristate.UNDEFINED);
+        }
+
+        DefaultValue(Tristate value, Context refinedContext, Tristate refinedValue) {
+            this.value = value;
+            this.refinedContext = refinedContext;
+            this.refinedValue = refinedValue;
+        }
+    }
+}
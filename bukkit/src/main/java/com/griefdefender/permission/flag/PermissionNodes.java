@@ -0,0 +1,79 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.permission.flag;
+
+import com.griefdefender.GriefDefenderPlugin;
+
+import java.util.function.Predicate;
+
+/**
+ * Decides which permission nodes on the default holder may apply to a flag
+ * permission, shared by {@link FlagContextIndex} and {@link FlagDefaultTable}
+ * so both skip provider queries under the same rules.
+ */
+final class PermissionNodes {
+
+    private PermissionNodes() {
+    }
+
+    /**
+     * Gets whether a node may apply to any permission, rather than only to its
+     * own permission and the permissions it is a parent of.
+     *
+     * @param node The permission node
+     * @return Whether the node may apply to any permission
+     */
+    static boolean mayMatchAny(String node) {
+        return node.indexOf('*') != -1 || node.indexOf('?') != -1
+                // LuckPerms regex and shorthand nodes
+                || node.startsWith("r=") || node.startsWith("R=") || node.indexOf('(') != -1
+                // Inherited groups are not indexed
+                || node.startsWith("group.");
+    }
+
+    /**
+     * Gets whether a node applying to a permission exists, checking the
+     * permission itself and, if the provider resolves parent nodes, each
+     * dotted parent of it.
+     *
+     * @param permission The permission
+     * @param hasNode Whether a node exists for a permission
+     * @return Whether a node may apply
+     */
+    static boolean anyNodeApplies(String permission, Predicate<String> hasNode) {
+        if (hasNode.test(permission)) {
+            return true;
+        }
+        if (!GriefDefenderPlugin.getInstance().getPermissionProvider().resolvesParentNodes()) {
+            return false;
+        }
+        for (int end = permission.lastIndexOf('.'); end > 0; end = permission.lastIndexOf('.', end - 1)) {
+            if (hasNode.test(permission.substring(0, end))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
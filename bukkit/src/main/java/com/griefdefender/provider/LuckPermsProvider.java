@@ -25,6 +25,7 @@
 package com.griefdefender.provider;
 
 import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.common.collect.ImmutableSet;
 import com.griefdefender.GDPlayerData;
 import com.griefdefender.GriefDefenderPlugin;
@@ -35,11 +36,14 @@
 import com.griefdefender.api.permission.ResultTypes;
 import com.griefdefender.api.permission.option.Option;
 import com.griefdefender.cache.PermissionHolderCache;
+import com.griefdefender.cache.PermissionQueryKey;
 import com.griefdefender.claim.ClaimContextCalculator;
 import com.griefdefender.claim.GDClaim;
+import com.griefdefender.listener.LuckPermsEventHandler;
 import com.griefdefender.permission.GDPermissionHolder;
 import com.griefdefender.permission.GDPermissionResult;
 import com.griefdefender.permission.GDPermissionUser;
+import com.griefdefender.permission.WildcardPermissionMap;
 import com.griefdefender.registry.OptionRegistryModule;
 import net.kyori.text.TextComponent;
 import net.luckperms.api.LuckPerms;
@@ -63,6 +67,7 @@
 import net.luckperms.api.query.dataorder.DataQueryOrder;
 import net.luckperms.api.query.dataorder.DataQueryOrderFunction;
 
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
@@ -70,15 +75,15 @@
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.UUID;
 import java.util.Map.Entry;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import org.apache.commons.io.FilenameUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 
@@ -99,10 +104,21 @@ public int compare(Set<Context> s1, Set<Context> s2) {
 
     private final LuckPerms luckPermsApi;
     private final static DefaultDataQueryOrderFunction DEFAULT_DATA_QUERY_ORDER = new DefaultDataQueryOrderFunction();
+    // Holder identifier -> own permission nodes grouped by contexts, removed when the holder's data changes
+    private final Map<String, List<Entry<Set<Context>, WildcardPermissionMap>>> permanentPermissionIndex = new ConcurrentHashMap<>();
+    private final Map<String, List<Entry<Set<Context>, WildcardPermissionMap>>> transientPermissionIndex = new ConcurrentHashMap<>();
+    // Incremented on each index invalidation so builds racing with a data change are discarded
+    private final AtomicInteger permissionIndexGeneration = new AtomicInteger();
+    private final QueryOptions defaultQueryOptions = QueryOptions.builder(QueryMode.CONTEXTUAL).option(DataQueryOrderFunction.KEY, DEFAULT_DATA_QUERY_ORDER).build();
+    // GD contexts -> query options holding the converted LP contexts
+    private final Cache<Set<Context>, QueryOptions> queryOptionsCache = Caffeine.newBuilder().maximumSize(10000).build();
+    // LP node contexts -> GD contexts
+    private final Cache<ContextSet, Set<Context>> gpContextCache = Caffeine.newBuilder().maximumSize(10000).build();
 
     public LuckPermsProvider() {
         this.luckPermsApi = Bukkit.getServicesManager().getRegistration(LuckPerms.class).getProvider();
         this.luckPermsApi.getContextManager().registerCalculator(new ClaimContextCalculator());
+        new LuckPermsEventHandler(this);
     }
 
     public LuckPerms getApi() {
@@ -328,6 +344,7 @@ public void clearPermissions(GDPermissionHolder holder, Set<Context> contexts) {
 
         ImmutableContextSet set = this.getLPContexts(contexts).immutableCopy();
         permissionHolder.data().clear(set);
+        this.invalidatePermissionIndex(holder.getIdentifier());
         this.savePermissionHolder(permissionHolder);
     }
 
@@ -337,30 +354,27 @@ public boolean holderHasPermission(GDPermissionHolder holder, String permission)
             return false;
         }
 
-        final QueryOptions query = QueryOptions.builder(QueryMode.CONTEXTUAL).option(DataQueryOrderFunction.KEY, DEFAULT_DATA_QUERY_ORDER).build();
-        return permissionHolder.getCachedData().getPermissionData(query).checkPermission(permission).asBoolean();
+        return permissionHolder.getCachedData().getPermissionData(this.defaultQueryOptions).checkPermission(permission).asBoolean();
     }
 
     public Map<String, Boolean> getPermissions(GDPermissionHolder holder, Set<Context> contexts) {
-        ImmutableContextSet set = this.getLPContexts(contexts).immutableCopy();
         final PermissionHolder permissionHolder = this.getLuckPermsHolder(holder);
         if (permissionHolder == null) {
             return new HashMap<>();
         }
 
-        final QueryOptions query = QueryOptions.builder(QueryMode.CONTEXTUAL).option(DataQueryOrderFunction.KEY, DEFAULT_DATA_QUERY_ORDER).context(set).build();
+        final QueryOptions query = this.getQueryOptions(contexts);
         CachedPermissionData cachedData = permissionHolder.getCachedData().getPermissionData(query);
         return cachedData.getPermissionMap();
     }
 
     public Map<String, String> getOptions(GDPermissionHolder holder, Set<Context> contexts) {
-        ImmutableContextSet set = this.getLPContexts(contexts).immutableCopy();
         final PermissionHolder permissionHolder = this.getLuckPermsHolder(holder);
         if (permissionHolder == null) {
             return new HashMap<>();
         }
 
-        final QueryOptions query = QueryOptions.builder(QueryMode.CONTEXTUAL).option(DataQueryOrderFunction.KEY, DEFAULT_DATA_QUERY_ORDER).context(set).build();
+        final QueryOptions query = this.getQueryOptions(contexts);
         CachedMetaData cachedData = permissionHolder.getCachedData().getMetaData(query);
         // TODO
         Map<String, String> metaMap = new HashMap<>();
@@ -378,13 +392,14 @@ public Map<Set<Context>, Map<String, Boolean>> getPermanentPermissions(GDPermiss
 
         final Collection<Node> nodes = permissionHolder.data().toCollection();
         Map<Set<Context>, Map<String, Boolean>> permanentPermissionMap = new TreeMap<Set<Context>, Map<String, Boolean>>(CONTEXT_COMPARATOR);
+        Map<ContextSet, Set<Context>> contextMap = new HashMap<>();
         for (Node node : nodes) {
             if (node.getType() != NodeType.PERMISSION) {
                 continue;
             }
 
             final PermissionNode permissionNode = (PermissionNode) node;
-            final Set<Context> contexts = getGPContexts(node.getContexts());
+            final Set<Context> contexts = this.getGPContexts(node.getContexts(), contextMap);
             Map<String, Boolean> permissionEntry = permanentPermissionMap.get(contexts);
             if (permissionEntry == null) {
                 permissionEntry = new HashMap<>();
@@ -406,13 +421,14 @@ public Map<Set<Context>, Map<String, Boolean>> getTransientPermissions(GDPermiss
 
         final Collection<Node> nodes = permissionHolder.transientData().toCollection();
         Map<Set<Context>, Map<String, Boolean>> transientPermissionMap = new TreeMap<Set<Context>, Map<String, Boolean>>(CONTEXT_COMPARATOR);
+        Map<ContextSet, Set<Context>> contextMap = new HashMap<>();
         for (Node node : nodes) {
             if (node.getType() != NodeType.PERMISSION) {
                 continue;
             }
 
             final PermissionNode permissionNode = (PermissionNode) node;
-            final Set<Context> contexts = getGPContexts(node.getContexts());
+            final Set<Context> contexts = this.getGPContexts(node.getContexts(), contextMap);
             Map<String, Boolean> permissionEntry = transientPermissionMap.get(contexts);
             if (permissionEntry == null) {
                 permissionEntry = new HashMap<>();
@@ -425,6 +441,57 @@ public Map<Set<Context>, Map<String, Boolean>> getTransientPermissions(GDPermiss
         return transientPermissionMap;
     }
 
+    // Nodes sharing the same LuckPerms contexts share a single converted set
+    private Set<Context> getGPContexts(ContextSet contextSet, Map<ContextSet, Set<Context>> contextMap) {
+        Set<Context> contexts = contextMap.get(contextSet);
+        if (contexts == null) {
+            contexts = getGPContexts(contextSet);
+            contextMap.put(contextSet, contexts);
+        }
+        return contexts;
+    }
+
+    private List<Entry<Set<Context>, WildcardPermissionMap>> getIndexedPermanentPermissions(GDPermissionHolder holder) {
+        return this.getIndexedPermissions(holder, this.permanentPermissionIndex, false);
+    }
+
+    private List<Entry<Set<Context>, WildcardPermissionMap>> getIndexedTransientPermissions(GDPermissionHolder holder) {
+        return this.getIndexedPermissions(holder, this.transientPermissionIndex, true);
+    }
+
+    private List<Entry<Set<Context>, WildcardPermissionMap>> getIndexedPermissions(GDPermissionHolder holder, Map<String, List<Entry<Set<Context>, WildcardPermissionMap>>> index, boolean transientData) {
+        List<Entry<Set<Context>, WildcardPermissionMap>> permissions = index.get(holder.getIdentifier());
+        if (permissions != null) {
+            return permissions;
+        }
+
+        final int generation = this.permissionIndexGeneration.get();
+        final Map<Set<Context>, Map<String, Boolean>> permissionMap = transientData ? this.getTransientPermissions(holder) : this.getPermanentPermissions(holder);
+        // keep lookup order of context sets
+        permissions = new ArrayList<>(permissionMap.size());
+        for (Entry<Set<Context>, Map<String, Boolean>> mapEntry : permissionMap.entrySet()) {
+            permissions.add(new AbstractMap.SimpleImmutableEntry<>(mapEntry.getKey(), new WildcardPermissionMap(mapEntry.getValue())));
+        }
+        index.put(holder.getIdentifier(), permissions);
+        if (this.permissionIndexGeneration.get() != generation) {
+            // holder data may have changed while building
+            index.remove(holder.getIdentifier());
+        }
+        return permissions;
+    }
+
+    /**
+     * Removes the indexed permissions of a holder so they are rebuilt
+     * from LuckPerms on next lookup.
+     *
+     * @param identifier The holder identifier
+     */
+    public void invalidatePermissionIndex(String identifier) {
+        this.permissionIndexGeneration.incrementAndGet();
+        this.permanentPermissionIndex.remove(identifier);
+        this.transientPermissionIndex.remove(identifier);
+    }
+
     public Map<Set<Context>, Map<String, String>> getPermanentOptions(GDPermissionHolder holder) {
         final PermissionHolder permissionHolder = this.getLuckPermsHolder(holder);
         if (permissionHolder == null) {
@@ -495,7 +562,7 @@ public Map<String, String> getPermanentOptions(GDPermissionHolder holder, Set<Co
             final MetaNode metaNode = (MetaNode) node;
             if (contexts == null) {
                 options.put(metaNode.getMetaKey(), metaNode.getMetaValue());
-            } else if (getGPContexts(node.getContexts()).containsAll(contexts)) {
+            } else if (this.getCachedGPContexts(node.getContexts()).containsAll(contexts)) {
                 options.put(metaNode.getMetaKey(), metaNode.getMetaValue());
             }
         }
@@ -518,7 +585,7 @@ public Map<String, String> getTransientOptions(GDPermissionHolder holder, Set<Co
             final MetaNode metaNode = (MetaNode) node;
             if (contexts == null) {
                 options.put(metaNode.getMetaKey(), metaNode.getMetaValue());
-            } else if (getGPContexts(node.getContexts()).containsAll(contexts)) {
+            } else if (this.getCachedGPContexts(node.getContexts()).containsAll(contexts)) {
                 options.put(metaNode.getMetaKey(), metaNode.getMetaValue());
             }
         }
@@ -565,8 +632,7 @@ public Set<Context> getGPContexts(ContextSet contextSet) {
     public Tristate getPermissionValue(GDPermissionHolder holder, String permission) {
         final Set<Context> contexts = new HashSet<>();
         this.checkServerContext(contexts);
-        ImmutableContextSet set = this.getLPContexts(contexts).immutableCopy();
-        return this.getPermissionValue(holder, permission, set);
+        return this.getPermissionValue(holder, permission, this.getQueryOptions(contexts));
     }
 
     
@@ -576,8 +642,7 @@ public Tristate getPermissionValue(GDClaim claim, GDPermissionHolder holder, Str
 
     public Tristate getPermissionValue(GDClaim claim, GDPermissionHolder holder, String permission, Set<Context> contexts) {
         this.checkServerContext(contexts);
-        ImmutableContextSet contextSet = this.getLPContexts(contexts).immutableCopy();
-        return this.getPermissionValue(holder, permission, contextSet);
+        return this.getPermissionValue(holder, permission, this.getQueryOptions(contexts));
     }
 
     public Tristate getPermissionValue(GDClaim claim, GDPermissionHolder holder, String permission, Set<Context> contexts, boolean checkTransient) {
@@ -585,15 +650,16 @@ public Tristate getPermissionValue(GDClaim claim, GDPermissionHolder holder, Str
         this.addActiveContexts(activeContexts, holder, null, claim);
         contexts.addAll(activeContexts);
         this.checkServerContext(contexts);
-        final int contextHash =  Objects.hash(claim, holder, permission, contexts);
-        final Cache<Integer, Tristate> cache = PermissionHolderCache.getInstance().getOrCreatePermissionCache(holder);
-        Tristate result = cache.getIfPresent(contextHash);
+        final PermissionQueryKey lookupKey = PermissionHolderCache.getInstance().createPermissionQueryKey(claim, holder, permission, contexts);
+        final Cache<PermissionQueryKey, Tristate> cache = PermissionHolderCache.getInstance().getOrCreatePermissionCache(holder);
+        Tristate result = cache.getIfPresent(lookupKey);
         if (result != null) {
             return result;
         }
+        final PermissionQueryKey queryKey = lookupKey.immutableCopy();
         // check persistent permissions first
-        Map<Set<Context>, Map<String, Boolean>> permanentPermissions = getPermanentPermissions(holder);
-        for (Entry<Set<Context>, Map<String, Boolean>> entry : permanentPermissions.entrySet()) {
+        List<Entry<Set<Context>, WildcardPermissionMap>> permanentPermissions = this.getIndexedPermanentPermissions(holder);
+        for (Entry<Set<Context>, WildcardPermissionMap> entry : permanentPermissions) {
             if (entry.getKey().isEmpty()) {
                 continue;
             }
@@ -605,12 +671,10 @@ public Tristate getPermissionValue(GDClaim claim, GDPermissionHolder holder, Str
                 }
             }
             if (match) {
-                for (Map.Entry<String, Boolean> permEntry : entry.getValue().entrySet()) {
-                    if (FilenameUtils.wildcardMatch(permission, permEntry.getKey())) {
-                        final Tristate value = Tristate.fromBoolean(permEntry.getValue());
-                        cache.put(contextHash, value);
-                        return value;
-                    }
+                final Tristate value = entry.getValue().getValue(permission);
+                if (value != Tristate.UNDEFINED) {
+                    cache.put(queryKey, value);
+                    return value;
                 }
                 // If we get here, continue on normally
                 continue;
@@ -622,8 +686,8 @@ public Tristate getPermissionValue(GDClaim claim, GDPermissionHolder holder, Str
         }
 
         // check transient permissions last
-        Map<Set<Context>, Map<String, Boolean>> transientPermissions = getTransientPermissions(holder);
-        for (Entry<Set<Context>, Map<String, Boolean>> entry : transientPermissions.entrySet()) {
+        List<Entry<Set<Context>, WildcardPermissionMap>> transientPermissions = this.getIndexedTransientPermissions(holder);
+        for (Entry<Set<Context>, WildcardPermissionMap> entry : transientPermissions) {
             if (entry.getKey().isEmpty()) {
                 continue;
             }
@@ -635,25 +699,23 @@ public Tristate getPermissionValue(GDClaim claim, GDPermissionHolder holder, Str
                 }
             }
             if (match) {
-                for (Map.Entry<String, Boolean> permEntry : entry.getValue().entrySet()) {
-                    if (FilenameUtils.wildcardMatch(permission, permEntry.getKey())) {
-                        final Tristate value = Tristate.fromBoolean(permEntry.getValue());
-                        cache.put(contextHash, value);
-                        return value;
-                    }
+                final Tristate value = entry.getValue().getValue(permission);
+                if (value != Tristate.UNDEFINED) {
+                    cache.put(queryKey, value);
+                    return value;
                 }
                 // If we get here, continue on normally
                 continue;
             }
         }
 
-        cache.put(contextHash, Tristate.UNDEFINED);
+        cache.put(queryKey, Tristate.UNDEFINED);
         return Tristate.UNDEFINED;
     }
 
     public Tristate getPermissionValueWithRequiredContexts(GDClaim claim, GDPermissionHolder holder, String permission, Set<Context> contexts, String contextFilter) {
-        Map<Set<Context>, Map<String, Boolean>> permanentPermissions = getPermanentPermissions(holder);
-        for (Entry<Set<Context>, Map<String, Boolean>> entry : permanentPermissions.entrySet()) {
+        List<Entry<Set<Context>, WildcardPermissionMap>> permanentPermissions = this.getIndexedPermanentPermissions(holder);
+        for (Entry<Set<Context>, WildcardPermissionMap> entry : permanentPermissions) {
             if (entry.getKey().isEmpty()) {
                 continue;
             }
@@ -675,11 +737,9 @@ public Tristate getPermissionValueWithRequiredContexts(GDClaim claim, GDPermissi
                 }
             }
             if (match) {
-                for (Map.Entry<String, Boolean> permEntry : entry.getValue().entrySet()) {
-                    if (FilenameUtils.wildcardMatch(permission, permEntry.getKey())) {
-                        final Tristate value = Tristate.fromBoolean(permEntry.getValue());
-                        return value;
-                    }
+                final Tristate value = entry.getValue().getValue(permission);
+                if (value != Tristate.UNDEFINED) {
+                    return value;
                 }
             }
         }
@@ -688,17 +748,20 @@ public Tristate getPermissionValueWithRequiredContexts(GDClaim claim, GDPermissi
 
     public Tristate getPermissionValue(GDPermissionHolder holder, String permission, Set<Context> contexts) {
         this.checkServerContext(contexts);
-        ImmutableContextSet contextSet = this.getLPContexts(contexts).immutableCopy();
-        return this.getPermissionValue(holder, permission, contextSet);
+        return this.getPermissionValue(holder, permission, this.getQueryOptions(contexts));
     }
 
     public Tristate getPermissionValue(GDPermissionHolder holder, String permission, ContextSet contexts) {
+        final QueryOptions query = QueryOptions.builder(QueryMode.CONTEXTUAL).option(DataQueryOrderFunction.KEY, DEFAULT_DATA_QUERY_ORDER).context(contexts).build();
+        return this.getPermissionValue(holder, permission, query);
+    }
+
+    private Tristate getPermissionValue(GDPermissionHolder holder, String permission, QueryOptions query) {
         final PermissionHolder permissionHolder = this.getLuckPermsHolder(holder);
         if (permissionHolder == null) {
             return Tristate.UNDEFINED;
         }
 
-        final QueryOptions query = QueryOptions.builder(QueryMode.CONTEXTUAL).option(DataQueryOrderFunction.KEY, DEFAULT_DATA_QUERY_ORDER).context(contexts).build();
         CachedPermissionData cachedData = permissionHolder.getCachedData().getPermissionData(query);
         return getGDTristate(cachedData.checkPermission(permission));
     }
@@ -708,13 +771,12 @@ public Tristate getPermissionValue(GDPermissionHolder holder, String permission,
     public String getOptionValue(GDPermissionHolder holder, Option option, Set<Context> contexts) {
         // If no server context exists, add global
         this.checkServerContext(contexts);
-        ImmutableContextSet set = this.getLPContexts(contexts).immutableCopy();
         final PermissionHolder permissionHolder = this.getLuckPermsHolder(holder);
         if (permissionHolder == null) {
             return null;
         }
 
-        final QueryOptions query = QueryOptions.builder(QueryMode.CONTEXTUAL).option(DataQueryOrderFunction.KEY, DEFAULT_DATA_QUERY_ORDER).context(set).build();
+        final QueryOptions query = this.getQueryOptions(contexts);
         CachedMetaData metaData = permissionHolder.getCachedData().getMetaData(query);
         return metaData.getMetaValue(option.getPermission());
     }
@@ -723,13 +785,12 @@ public String getOptionValue(GDPermissionHolder holder, Option option, Set<Conte
     public List<String> getOptionValueList(GDPermissionHolder holder, Option option, Set<Context> contexts) {
         // If no server context exists, add global
         this.checkServerContext(contexts);
-        ImmutableContextSet set = this.getLPContexts(contexts).immutableCopy();
         final PermissionHolder permissionHolder = this.getLuckPermsHolder(holder);
         if (permissionHolder == null) {
             return null;
         }
 
-        final QueryOptions query = QueryOptions.builder(QueryMode.CONTEXTUAL).option(DataQueryOrderFunction.KEY, DEFAULT_DATA_QUERY_ORDER).context(set).build();
+        final QueryOptions query = this.getQueryOptions(contexts);
         CachedMetaData metaData = permissionHolder.getCachedData().getMetaData(query);
         List<String> list = metaData.getMeta().get(option.getPermission());
         if (list == null) {
@@ -797,12 +858,13 @@ public PermissionResult setPermissionValue(GDPermissionHolder holder, String per
         }
 
         if (result.wasSuccessful()) {
+            this.invalidatePermissionIndex(holder.getIdentifier());
             if (permissionHolder instanceof Group) {
                 // If a group is changed, we invalidate all cache
                 PermissionHolderCache.getInstance().invalidateAllPermissionCache();
             } else {
                 // We need to invalidate cache outside of LP listener so we can guarantee proper result returns
-                PermissionHolderCache.getInstance().getOrCreatePermissionCache(holder).invalidateAll();
+                PermissionHolderCache.getInstance().invalidatePermissionCache(holder);
             }
 
             if (save) {
@@ -839,6 +901,7 @@ public void setTransientPermission(GDPermissionHolder holder, String permission,
 
         final PermissionNode node = this.luckPermsApi.getNodeBuilderRegistry().forPermission().permission(permission).value(value).context(contextSet).build();
         permissionHolder.transientData().add(node);
+        this.invalidatePermissionIndex(holder.getIdentifier());
     }
 
     public void savePermissionHolder(PermissionHolder holder) {
@@ -880,6 +943,27 @@ public Set<Context> getGDContexts(ContextSet contexts) {
         return gdContexts;
     }
 
+    // Returns shared query options for contexts, which may be modified by the caller afterwards
+    private QueryOptions getQueryOptions(Set<Context> contexts) {
+        QueryOptions query = this.queryOptionsCache.getIfPresent(contexts);
+        if (query == null) {
+            final ImmutableContextSet set = this.getLPContexts(contexts).immutableCopy();
+            query = QueryOptions.builder(QueryMode.CONTEXTUAL).option(DataQueryOrderFunction.KEY, DEFAULT_DATA_QUERY_ORDER).context(set).build();
+            this.queryOptionsCache.put(PermissionHolderCache.getInstance().getOrCreateContextSet(contexts), query);
+        }
+        return query;
+    }
+
+    // Returns a shared immutable conversion of node contexts
+    private Set<Context> getCachedGPContexts(ContextSet contextSet) {
+        Set<Context> contexts = this.gpContextCache.getIfPresent(contextSet);
+        if (contexts == null) {
+            contexts = ImmutableSet.copyOf(this.getGPContexts(contextSet));
+            this.gpContextCache.put(contextSet.immutableCopy(), contexts);
+        }
+        return contexts;
+    }
+
     public MutableContextSet getLPContexts(Set<Context> contexts) {
         MutableContextSet lpContexts = MutableContextSet.create();
         contexts.forEach(entry -> {
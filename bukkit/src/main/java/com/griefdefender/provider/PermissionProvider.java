@@ -29,9 +29,11 @@
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import com.griefdefender.GDPlayerData;
 import com.griefdefender.api.Tristate;
 import com.griefdefender.api.claim.Claim;
@@ -39,6 +41,8 @@
 import com.griefdefender.api.permission.PermissionResult;
 import com.griefdefender.api.permission.flag.Flag;
 import com.griefdefender.api.permission.option.Option;
+import com.griefdefender.cache.PermissionHolderCache;
+import com.griefdefender.cache.PermissionQueryKey;
 import com.griefdefender.claim.GDClaim;
 import com.griefdefender.permission.GDPermissionHolder;
 
@@ -57,6 +61,16 @@ public interface PermissionProvider {
      */
     String getServerName();
 
+    /**
+     * Gets whether a permission node also applies to the permissions below it,
+     * such as {@code griefdefender.flag} to {@code griefdefender.flag.block-break}.
+     * 
+     * @return Whether parent nodes apply to child permissions
+     */
+    default boolean resolvesParentNodes() {
+        return false;
+    }
+
     /**
      * Checks if the group identifier exists.
      * 
@@ -248,6 +262,32 @@ public interface PermissionProvider {
      */
     Tristate getPermissionValue(GDClaim claim, GDPermissionHolder holder, String permission, Set<Context> contexts, boolean checkTransient);
 
+    /**
+     * Gets the cached value of a permission assigned to a holder, resolving
+     * and caching it if not present.
+     * 
+     * <p>Cached values are invalidated when the holder's data changes.</p>
+     * 
+     * @param claim The current claim, or null if none
+     * @param holder The holder
+     * @param permission The permission to check
+     * @param contexts The contexts
+     * @param resolver The function used to resolve an uncached value
+     * @return The permission value
+     */
+    default Tristate getCachedPermissionValue(@Nullable GDClaim claim, GDPermissionHolder holder, String permission, Set<Context> contexts, Supplier<Tristate> resolver) {
+        final PermissionQueryKey queryKey = PermissionHolderCache.getInstance().createPermissionQueryKey(claim, holder, permission, contexts);
+        final Cache<PermissionQueryKey, Tristate> cache = PermissionHolderCache.getInstance().getOrCreatePermissionCache(holder);
+        Tristate result = cache.getIfPresent(queryKey);
+        if (result == null) {
+            // The resolver may modify contexts
+            final PermissionQueryKey storedKey = queryKey.immutableCopy();
+            result = resolver.get();
+            cache.put(storedKey, result);
+        }
+        return result;
+    }
+
     /**
      * Gets the current value of a permission assigned to a holder.
      * 
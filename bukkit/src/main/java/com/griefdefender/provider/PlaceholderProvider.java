@@ -26,12 +26,19 @@
 
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.World;
 import org.bukkit.entity.Player;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.griefdefender.GDBootstrap;
 import com.griefdefender.GDPlayerData;
 import com.griefdefender.GriefDefenderPlugin;
@@ -41,12 +48,16 @@
 import com.griefdefender.api.claim.ClaimType;
 import com.griefdefender.api.claim.ClaimTypes;
 import com.griefdefender.api.claim.TrustTypes;
+import com.griefdefender.claim.ClaimIndexSnapshot;
 import com.griefdefender.claim.GDClaim;
+import com.griefdefender.claim.GDClaimManager;
 import com.griefdefender.internal.util.VecHelper;
 import com.griefdefender.permission.GDPermissionUser;
+import com.griefdefender.storage.BaseStorage;
 import com.griefdefender.util.PlayerUtil;
 
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 public class PlaceholderProvider {
 
@@ -58,6 +69,13 @@ public PlaceholderProvider() {
 
     private class GDPlaceholderExpansion extends PlaceholderExpansion {
 
+        private static final int MAIN_THREAD_TIMEOUT_SECONDS = 5;
+
+        // User UUID:identifier -> value computed on the main thread, for requests made off the main thread
+        private final Cache<String, String> mainThreadValues = Caffeine.newBuilder().expireAfterAccess(5, TimeUnit.MINUTES).build();
+        // Keys with a refresh queued on the main thread
+        private final Set<String> pendingRefreshes = ConcurrentHashMap.newKeySet();
+
         public GDPlaceholderExpansion() {
             
         }
@@ -69,38 +87,44 @@ public String onPlaceholderRequest(Player player, String identifier){
 
         @Override
         public String onRequest(OfflinePlayer user, String identifier) {
+            switch (identifier) {
+                case "claims_basic" :
+                case "claims_subdivision" :
+                case "claims_town" :
+                case "claims_town_basic" :
+                case "claims_town_subdivision" :
+                case "pvp" :
+                case "blocks_total" :
+                case "blocks_left" :
+                case "blocks_accrued_rate" :
+                case "blocks_accrued_max" :
+                    return this.getMainThreadValue(user, identifier);
+                default :
+                    break;
+            }
+
+            // Placeholders may be requested off the main thread, the rest only read the claim index snapshot
             final Player player = user instanceof Player ? (Player) user : null;
-            final Subject subject = GriefDefender.getCore().getSubject(user.getUniqueId().toString());
-            GDPlayerData playerData = null;
+            ClaimIndexSnapshot snapshot = null;
             Claim claim = null;
             if (player != null) {
-                final World world = player.getWorld();
-                claim = GriefDefender.getCore().getClaimManager(world.getUID()).getClaimAt(VecHelper.toVector3i(player.getLocation()));
-                playerData = (GDPlayerData) GriefDefender.getCore().getPlayerData(world.getUID(), player.getUniqueId()).get();
-            } else {
-                playerData = (GDPlayerData) GriefDefender.getCore().getPlayerData(Bukkit.getWorlds().get(0).getUID(), user.getUniqueId()).get();
+                final GDClaimManager claimManager = GriefDefenderPlugin.getInstance().dataStore.getLoadedClaimWorldManager(player.getWorld().getUID());
+                if (claimManager != null) {
+                    snapshot = claimManager.getClaimIndexSnapshot();
+                    claim = snapshot.getClaimAt(VecHelper.toVector3i(player.getLocation()));
+                }
             }
             switch (identifier) {
                 case "claim_admin" :
-                    return this.getAdminClaimsInside(player, claim);
+                    return this.getAdminClaimsInside(player, snapshot, claim);
                 case "claim_basic" :
-                    return this.getPlayerClaimsInside(player, claim, ClaimTypes.BASIC);
+                    return this.getPlayerClaimsInside(player, snapshot, claim, ClaimTypes.BASIC);
                 case "claim_subdivision" :
-                    return this.getPlayerClaimsInside(player, claim, ClaimTypes.SUBDIVISION);
+                    return this.getPlayerClaimsInside(player, snapshot, claim, ClaimTypes.SUBDIVISION);
                 case "claim_town" :
-                    return this.getPlayerClaimsInside(player, claim, ClaimTypes.TOWN);
+                    return this.getPlayerClaimsInside(player, snapshot, claim, ClaimTypes.TOWN);
                 case "claims_admin" :
                     return this.getAllAdminClaims(player);
-                case "claims_basic" :
-                    return this.getAllPlayerClaims(playerData, ClaimTypes.BASIC);
-                case "claims_subdivision" :
-                    return this.getAllPlayerClaims(playerData, ClaimTypes.SUBDIVISION);
-                case "claims_town" :
-                    return this.getAllPlayerClaims(playerData, ClaimTypes.TOWN);
-                case "claims_town_basic" :
-                    return this.getAllTownChildrenClaims(playerData, ClaimTypes.BASIC);
-                case "claims_town_subdivision" :
-                    return this.getAllTownChildrenClaims(playerData, ClaimTypes.SUBDIVISION);
                 case "claim_for_sale" :
                     if (claim == null) {
                         return "false";
@@ -129,11 +153,38 @@ public String onRequest(OfflinePlayer user, String identifier) {
                         return "none";
                     }
                     return claim.getType().getName();
-                case "pvp" : 
-                    if (claim == null) {
+                default :
+                    return null;
+            }
+        }
+
+        // Computes placeholders that load player data or evaluate options and flags, main thread only
+        private String getPlayerDataValue(OfflinePlayer user, String identifier) {
+            final Player player = user instanceof Player ? (Player) user : null;
+            final GDPlayerData playerData;
+            if (player != null) {
+                playerData = (GDPlayerData) GriefDefender.getCore().getPlayerData(player.getWorld().getUID(), player.getUniqueId()).get();
+            } else {
+                playerData = (GDPlayerData) GriefDefender.getCore().getPlayerData(Bukkit.getWorlds().get(0).getUID(), user.getUniqueId()).get();
+            }
+            switch (identifier) {
+                case "claims_basic" :
+                    return this.getAllPlayerClaims(playerData, ClaimTypes.BASIC);
+                case "claims_subdivision" :
+                    return this.getAllPlayerClaims(playerData, ClaimTypes.SUBDIVISION);
+                case "claims_town" :
+                    return this.getAllPlayerClaims(playerData, ClaimTypes.TOWN);
+                case "claims_town_basic" :
+                    return this.getAllTownChildrenClaims(playerData, ClaimTypes.BASIC);
+                case "claims_town_subdivision" :
+                    return this.getAllTownChildrenClaims(playerData, ClaimTypes.SUBDIVISION);
+                case "pvp" :
+                    if (player == null) {
                         return "[unknown]";
                     }
-                    return String.valueOf(PlayerUtil.getInstance().canPlayerPvP((GDClaim) claim, ((GDPermissionUser) subject)));
+                    final Subject subject = GriefDefender.getCore().getSubject(user.getUniqueId().toString());
+                    final GDClaim claim = GriefDefenderPlugin.getInstance().dataStore.getClaimAt(player.getLocation());
+                    return String.valueOf(PlayerUtil.getInstance().canPlayerPvP(claim, ((GDPermissionUser) subject)));
                 case "blocks_total" :
                     final int initial = playerData.getInitialClaimBlocks();
                     final int accrued = playerData.getAccruedClaimBlocks();
@@ -150,6 +201,45 @@ public String onRequest(OfflinePlayer user, String identifier) {
             }
         }
 
+        // Requests off the main thread get the value last computed on the main thread and queue a refresh,
+        // only the first request of a player waits for the main thread
+        @Nullable
+        private String getMainThreadValue(OfflinePlayer user, String identifier) {
+            final String key = user.getUniqueId() + ":" + identifier;
+            if (Bukkit.isPrimaryThread()) {
+                return this.refreshMainThreadValue(user, identifier, key);
+            }
+
+            final String value = this.mainThreadValues.getIfPresent(key);
+            if (value == null) {
+                try {
+                    return Bukkit.getScheduler().callSyncMethod(GDBootstrap.getInstance(), () -> this.refreshMainThreadValue(user, identifier, key))
+                            .get(MAIN_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                } catch (ExecutionException | TimeoutException e) {
+                    return null;
+                }
+            }
+            if (this.pendingRefreshes.add(key)) {
+                Bukkit.getScheduler().runTask(GDBootstrap.getInstance(), () -> {
+                    this.pendingRefreshes.remove(key);
+                    this.refreshMainThreadValue(user, identifier, key);
+                });
+            }
+            return value;
+        }
+
+        @Nullable
+        private String refreshMainThreadValue(OfflinePlayer user, String identifier, String key) {
+            final String value = this.getPlayerDataValue(user, identifier);
+            if (value != null) {
+                this.mainThreadValues.put(key, value);
+            }
+            return value;
+        }
+
         @Override
         public boolean canRegister(){
             return true;
@@ -182,15 +272,32 @@ public boolean persist(){
             return true;
         }
 
-        private String getAdminClaimsInside(Player player, Claim currentClaim) {
-            if (player == null) {
+        // Counts over the concurrent claim sets of loaded player data instead of copying them
+        private int countPlayerClaims(UUID playerUniqueId) {
+            if (BaseStorage.USE_GLOBAL_PLAYER_STORAGE) {
+                return this.countClaims(BaseStorage.GLOBAL_PLAYER_DATA.get(playerUniqueId));
+            }
+
+            int count = 0;
+            for (GDClaimManager claimManager : GriefDefenderPlugin.getInstance().dataStore.getLoadedClaimWorldManagers()) {
+                count += this.countClaims(claimManager.getPlayerDataMap().get(playerUniqueId));
+            }
+            return count;
+        }
+
+        private int countClaims(@Nullable GDPlayerData playerData) {
+            return playerData == null ? 0 : playerData.getInternalClaims().size();
+        }
+
+        private String getAdminClaimsInside(Player player, ClaimIndexSnapshot snapshot, Claim currentClaim) {
+            if (player == null || currentClaim == null) {
                 return "0";
             }
             int count = 0;
             if (currentClaim.isWilderness()) {
                 return this.getAllAdminClaims(player);
             }
-            for (Claim claim : currentClaim.getChildren(true)) {
+            for (Claim claim : snapshot.getChildren(currentClaim, true)) {
                 if (claim.isAdminClaim()) {
                     count++;
                 }
@@ -203,8 +310,12 @@ private String getAllAdminClaims(Player player) {
                 return "0";
             }
             final World world = player == null ? Bukkit.getWorlds().get(0) : player.getWorld();
+            final GDClaimManager claimManager = GriefDefenderPlugin.getInstance().dataStore.getLoadedClaimWorldManager(world.getUID());
+            if (claimManager == null) {
+                return "0";
+            }
             int count = 0;
-            final Set<Claim> claimList = GriefDefender.getCore().getClaimManager(world.getUID()).getWorldClaims();
+            final Set<Claim> claimList = claimManager.getClaimIndexSnapshot().getWorldClaims();
             for (Claim claim : claimList) {
                 if (claim.isAdminClaim()) {
                     count++;
@@ -213,15 +324,15 @@ private String getAllAdminClaims(Player player) {
             return String.valueOf(count);
         }
 
-        private String getPlayerClaimsInside(Player player, Claim currentClaim, ClaimType type) {
+        private String getPlayerClaimsInside(Player player, ClaimIndexSnapshot snapshot, Claim currentClaim, ClaimType type) {
             if (player == null || currentClaim == null) {
                 return "0";
             }
             int count = 0;
             if (currentClaim.isWilderness()) {
-                return String.valueOf(GriefDefender.getCore().getAllPlayerClaims(player.getUniqueId()).size());
+                return String.valueOf(this.countPlayerClaims(player.getUniqueId()));
             }
-            for (Claim claim : currentClaim.getChildren(true)) {
+            for (Claim claim : snapshot.getChildren(currentClaim, true)) {
                 if (claim.getType() == type) {
                     count++;
                 }
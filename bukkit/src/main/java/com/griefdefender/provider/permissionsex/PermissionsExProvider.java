@@ -7,6 +7,8 @@
 import ca.stellardrift.permissionsex.data.ImmutableSubjectData;
 import ca.stellardrift.permissionsex.subject.SubjectType;
 import ca.stellardrift.permissionsex.util.Util;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
@@ -22,6 +24,7 @@
 import com.griefdefender.api.permission.ResultTypes;
 import com.griefdefender.api.permission.flag.Flag;
 import com.griefdefender.api.permission.option.Option;
+import com.griefdefender.cache.PermissionHolderCache;
 import com.griefdefender.claim.GDClaim;
 import com.griefdefender.internal.registry.BlockTypeRegistryModule;
 import com.griefdefender.internal.registry.EntityTypeRegistryModule;
@@ -29,6 +32,8 @@
 import com.griefdefender.permission.GDPermissionHolder;
 import com.griefdefender.permission.GDPermissionResult;
 import com.griefdefender.permission.GDPermissionUser;
+import com.griefdefender.permission.flag.FlagContextIndex;
+import com.griefdefender.permission.flag.FlagDefaultTable;
 import ca.stellardrift.permissionsex.PermissionsEx;
 import ca.stellardrift.permissionsex.subject.CalculatedSubject;
 import com.griefdefender.provider.PermissionProvider;
@@ -68,6 +73,8 @@ public class PermissionsExProvider implements PermissionProvider {
     private static final ContextDefinition<CatalogType> CTX_TARGET = new MultiCatalogTypeContextDefinition(ContextKeys.TARGET);
 
     private final PermissionsEx<?> pex;
+    // Subjects with a registered update listener, weakly held so replaced subjects are registered again
+    private final Cache<CalculatedSubject, Boolean> listenedSubjects = Caffeine.newBuilder().weakKeys().build();
 
     public PermissionsExProvider(PermissionsEx<?> engine) {
         this.pex = engine;
@@ -154,7 +161,42 @@ private Set<Context> contextsPEXToGD(Set<ContextValue<?>> ctxs) {
     }
 
     private CalculatedSubject holderToPEXSubject(GDPermissionHolder holder) {
-        return pex.getSubjects(holder instanceof GDPermissionUser ? PermissionsEx.SUBJECTS_USER : PermissionsEx.SUBJECTS_GROUP).get(holder.getIdentifier()).join();
+        final CalculatedSubject subject = pex.getSubjects(holder instanceof GDPermissionUser ? PermissionsEx.SUBJECTS_USER : PermissionsEx.SUBJECTS_GROUP).get(holder.getIdentifier()).join();
+        listenedSubjects.get(subject, subj -> {
+            subj.registerListener(this::onSubjectUpdate);
+            return Boolean.TRUE;
+        });
+        return subject;
+    }
+
+    // - Cache invalidation
+
+    private void onSubjectUpdate(CalculatedSubject subject) {
+        if (PermissionsEx.SUBJECTS_USER.equals(subject.getIdentifier().getKey())) {
+            this.invalidateHolderCache(PermissionHolderCache.getInstance().getOrCreateHolder(subject.getIdentifier().getValue()));
+            return;
+        }
+
+        this.invalidateAllCache();
+    }
+
+    // Also called after our own writes complete as subject listeners may run later on another thread
+    private void invalidateHolderCache(GDPermissionHolder holder) {
+        if (holder instanceof GDPermissionUser) {
+            PermissionHolderCache.getInstance().invalidatePermissionCache(holder);
+            PermissionHolderCache.getInstance().invalidateOptionCache(holder);
+            return;
+        }
+
+        // Group changes are inherited by other subjects
+        this.invalidateAllCache();
+    }
+
+    private void invalidateAllCache() {
+        PermissionHolderCache.getInstance().invalidateAllPermissionCache();
+        PermissionHolderCache.getInstance().invalidateAllOptionCache();
+        FlagDefaultTable.getInstance().invalidatePermanentFlags();
+        FlagContextIndex.getInstance().invalidate();
     }
 
     private <ValueType> Map<Set<Context>, ValueType> tKeys(Map<Set<ContextValue<?>>, ValueType> pexMap) {
@@ -225,6 +267,11 @@ public String getServerName() {
         return pex.getConfig().getServerTags().get(0);
     }
 
+    @Override
+    public boolean resolvesParentNodes() {
+        return true;
+    }
+
     @Override
     public boolean hasGroupSubject(String identifier) {
         return pex.getSubjects(PermissionsEx.SUBJECTS_GROUP).isRegistered(identifier).join();
@@ -288,16 +335,19 @@ public void clearPermissions(GDClaim claim) {
             });
             return CompletableFuture.allOf(dataAwait.toArray(new CompletableFuture[0]));
         }).join();
+        this.invalidateAllCache();
     }
 
     @Override
     public void clearPermissions(GDPermissionHolder holder, Context context) {
-        holderToPEXSubject(holder).data().update(data -> data.clearPermissions(ImmutableSet.of(contextGDToPEX(context))));
+        holderToPEXSubject(holder).data().update(data -> data.clearPermissions(ImmutableSet.of(contextGDToPEX(context)))).join();
+        this.invalidateHolderCache(holder);
     }
 
     @Override
     public void clearPermissions(GDPermissionHolder holder, Set<Context> contexts) {
-        holderToPEXSubject(holder).data().update(data -> data.clearPermissions(contextsGDToPEX(contexts)));
+        holderToPEXSubject(holder).data().update(data -> data.clearPermissions(contextsGDToPEX(contexts))).join();
+        this.invalidateHolderCache(holder);
     }
 
     @Override
@@ -379,12 +429,12 @@ public Tristate getPermissionValue(GDClaim claim, GDPermissionHolder holder, Str
      */
     @Override
     public Tristate getPermissionValue(GDClaim claim, GDPermissionHolder holder, String permission, Set<Context> contexts, boolean checkTransient) {
-        return tristateFromInt(holderToPEXSubject(holder).getPermission(contextsGDToPEX(contexts), permission));
+        return getCachedPermissionValue(claim, holder, permission, contexts, () -> tristateFromInt(holderToPEXSubject(holder).getPermission(contextsGDToPEX(contexts), permission)));
     }
 
     @Override
     public Tristate getPermissionValue(GDPermissionHolder holder, String permission, Set<Context> contexts) {
-        return tristateFromInt(holderToPEXSubject(holder).getPermission(contextsGDToPEX(contexts), permission));
+        return getCachedPermissionValue(null, holder, permission, contexts, () -> tristateFromInt(holderToPEXSubject(holder).getPermission(contextsGDToPEX(contexts), permission)));
     }
 
     @Override
@@ -408,17 +458,23 @@ public List<String> getOptionValueList(GDPermissionHolder holder, Option option,
 
     @Override
     public PermissionResult setOptionValue(GDPermissionHolder holder, String permission, String value, Set<Context> contexts, boolean check) {
-        return convertResult(holderToPEXSubject(holder).data().update(data -> data.setOption(contextsGDToPEX(contexts), permission, value))).join();
+        final PermissionResult result = convertResult(holderToPEXSubject(holder).data().update(data -> data.setOption(contextsGDToPEX(contexts), permission, value))).join();
+        if (result.getResultType() == ResultTypes.SUCCESS) {
+            this.invalidateHolderCache(holder);
+        }
+        return result;
     }
 
     @Override
     public void setTransientOption(GDPermissionHolder holder, String permission, String value, Set<Context> contexts) {
-        holderToPEXSubject(holder).transientData().update(data -> data.setOption(contextsGDToPEX(contexts), permission, value));
+        holderToPEXSubject(holder).transientData().update(data -> data.setOption(contextsGDToPEX(contexts), permission, value)).join();
+        this.invalidateHolderCache(holder);
     }
 
     @Override
     public void setTransientPermission(GDPermissionHolder holder, String permission, Boolean value, Set<Context> contexts) {
-        holderToPEXSubject(holder).transientData().update(data -> data.setPermission(contextsGDToPEX(contexts), permission, pValFromBool(value)));
+        holderToPEXSubject(holder).transientData().update(data -> data.setPermission(contextsGDToPEX(contexts), permission, pValFromBool(value))).join();
+        this.invalidateHolderCache(holder);
     }
 
     @Override
@@ -429,7 +485,11 @@ public void refreshCachedData(GDPermissionHolder holder) {
 
     @Override
     public PermissionResult setPermissionValue(GDPermissionHolder holder, String permission, Tristate value, Set<Context> contexts, boolean check, boolean save) {
-        return convertResult(holderToPEXSubject(holder).data().update(data -> data.setPermission(contextsGDToPEX(contexts), permission, intFromTristate(value)))).join();
+        final PermissionResult result = convertResult(holderToPEXSubject(holder).data().update(data -> data.setPermission(contextsGDToPEX(contexts), permission, intFromTristate(value)))).join();
+        if (result.getResultType() == ResultTypes.SUCCESS) {
+            this.invalidateHolderCache(holder);
+        }
+        return result;
     }
 
     @Override
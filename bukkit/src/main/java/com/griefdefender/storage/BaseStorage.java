@@ -55,6 +55,7 @@
 import com.griefdefender.migrator.PlayerDataMigrator;
 import com.griefdefender.permission.GDPermissionUser;
 import com.griefdefender.permission.flag.FlagContexts;
+import com.griefdefender.permission.flag.FlagDefaultTable;
 import com.griefdefender.permission.option.GDOption;
 import com.griefdefender.registry.FlagRegistryModule;
 import com.griefdefender.registry.OptionRegistryModule;
@@ -67,10 +68,12 @@
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.command.CommandSender;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.io.File;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -84,8 +87,8 @@ public abstract class BaseStorage {
 
     protected final Map<UUID, GDClaimManager> claimWorldManagers = new ConcurrentHashMap<>();
 
-    public static Map<UUID, GriefDefenderConfig<ConfigBase>> dimensionConfigMap = new HashMap<>();
-    public static Map<UUID, GriefDefenderConfig<ConfigBase>> worldConfigMap = new HashMap<>();
+    public static Map<UUID, GriefDefenderConfig<ConfigBase>> dimensionConfigMap = new ConcurrentHashMap<>();
+    public static Map<UUID, GriefDefenderConfig<ConfigBase>> worldConfigMap = new ConcurrentHashMap<>();
     public static Map<String, ClaimTemplateStorage> globalTemplates = new HashMap<>();
     public static GriefDefenderConfig<GlobalConfig> globalConfig;
     public static Map<UUID, GDPlayerData> GLOBAL_PLAYER_DATA = new ConcurrentHashMap<>();
@@ -260,6 +263,15 @@ public GDClaim getClaimAt(Location location, GDClaim cachedClaim) {
         return (GDClaim) claimManager.getClaimAt(VecHelper.toVector3i(location), cachedClaim, null, false);
     }
 
+    public GDClaim[] getClaimsAt(World world, List<Location> locations) {
+        GDClaimManager claimManager = this.getClaimWorldManager(world.getUID());
+        final Vector3i[] positions = new Vector3i[locations.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = VecHelper.toVector3i(locations.get(i));
+        }
+        return claimManager.getClaimsAt(positions);
+    }
+
     public GDPlayerData getPlayerData(World world, UUID playerUniqueId) {
         return this.getPlayerData(world.getUID(), playerUniqueId);
     }
@@ -308,6 +320,16 @@ public GDClaimManager getClaimWorldManager(UUID worldUniqueId) {
         return claimWorldManager;
     }
 
+    // Does not register the world, safe to use off the main thread
+    @Nullable
+    public GDClaimManager getLoadedClaimWorldManager(UUID worldUniqueId) {
+        return this.claimWorldManagers.get(worldUniqueId);
+    }
+
+    public Collection<GDClaimManager> getLoadedClaimWorldManagers() {
+        return this.claimWorldManagers.values();
+    }
+
     public void removeClaimWorldManager(UUID worldUniqueId) {
         if (BaseStorage.USE_GLOBAL_PLAYER_STORAGE) {
             return;
@@ -322,7 +344,7 @@ public void setDefaultGlobalPermissions() {
         final GriefDefenderConfig<GlobalConfig> activeConfig = GriefDefenderPlugin.getGlobalConfig();
         final Map<String, Boolean> adminDefaultFlags = activeConfig.getConfig().permissionCategory.getFlagDefaults(ClaimTypes.ADMIN.getName().toLowerCase());
         if (adminDefaultFlags != null && !adminDefaultFlags.isEmpty()) {
-            this.setDefaultFlags(contexts, adminDefaultFlags);
+            this.setDefaultFlags(ClaimContexts.ADMIN_DEFAULT_CONTEXT, contexts, adminDefaultFlags);
         }
 
         // Basic defaults
@@ -330,7 +352,7 @@ public void setDefaultGlobalPermissions() {
         contexts.add(ClaimContexts.BASIC_DEFAULT_CONTEXT);
         final Map<String, Boolean> basicDefaultFlags = activeConfig.getConfig().permissionCategory.getFlagDefaults(ClaimTypes.BASIC.getName().toLowerCase());
         if (basicDefaultFlags != null && !basicDefaultFlags.isEmpty()) {
-            this.setDefaultFlags(contexts, basicDefaultFlags);
+            this.setDefaultFlags(ClaimContexts.BASIC_DEFAULT_CONTEXT, contexts, basicDefaultFlags);
         }
         final Map<String, String> basicDefaultOptions = activeConfig.getConfig().permissionCategory.getBasicOptionDefaults();
         contexts = new HashSet<>();
@@ -343,7 +365,7 @@ public void setDefaultGlobalPermissions() {
         final Map<String, Boolean> townDefaultFlags = activeConfig.getConfig().permissionCategory.getFlagDefaults(ClaimTypes.TOWN.getName().toLowerCase());
         final Map<String, String> townDefaultOptions = activeConfig.getConfig().permissionCategory.getTownOptionDefaults();
         if (townDefaultFlags != null && !townDefaultFlags.isEmpty()) {
-            this.setDefaultFlags(contexts, townDefaultFlags);
+            this.setDefaultFlags(ClaimContexts.TOWN_DEFAULT_CONTEXT, contexts, townDefaultFlags);
         }
         contexts = new HashSet<>();
         contexts.add(ClaimTypes.TOWN.getDefaultContext());
@@ -359,20 +381,27 @@ public void setDefaultGlobalPermissions() {
         contexts = new HashSet<>();
         contexts.add(ClaimContexts.WILDERNESS_DEFAULT_CONTEXT);
         final Map<String, Boolean> wildernessDefaultFlags = activeConfig.getConfig().permissionCategory.getFlagDefaults(ClaimTypes.WILDERNESS.getName().toLowerCase());
-        this.setDefaultFlags(contexts, wildernessDefaultFlags);
+        this.setDefaultFlags(ClaimContexts.WILDERNESS_DEFAULT_CONTEXT, contexts, wildernessDefaultFlags);
 
         // Global default options
         contexts = new HashSet<>();
         contexts.add(ClaimContexts.GLOBAL_DEFAULT_CONTEXT);
         final Map<String, Boolean> globalDefaultFlags = activeConfig.getConfig().permissionCategory.getFlagDefaults("global");
-        this.setDefaultFlags(contexts, globalDefaultFlags);
+        this.setDefaultFlags(ClaimContexts.GLOBAL_DEFAULT_CONTEXT, contexts, globalDefaultFlags);
         final Map<String, String> globalDefaultOptions = activeConfig.getConfig().permissionCategory.getUserOptionDefaults();
         this.setDefaultOptions(ClaimContexts.GLOBAL_DEFAULT_CONTEXT.getName(), contexts, new HashMap<>(globalDefaultOptions));
         GriefDefenderPlugin.getInstance().getPermissionProvider().setTransientPermission(GriefDefenderPlugin.DEFAULT_HOLDER, "griefdefender", false, new HashSet<>());
         activeConfig.save();
     }
 
-    private void setDefaultFlags(Set<Context> contexts, Map<String, Boolean> defaultFlags) {
+    private void setDefaultFlags(Context defaultContext, Set<Context> contexts, Map<String, Boolean> defaultFlags) {
+        final FlagDefaultTable defaultTable = FlagDefaultTable.getInstance();
+        for (Map.Entry<String, Boolean> mapEntry : defaultFlags.entrySet()) {
+            final Flag flag = FlagRegistryModule.getInstance().getById(mapEntry.getKey()).orElse(null);
+            if (flag != null) {
+                defaultTable.setDefault(defaultContext, flag, mapEntry.getValue());
+            }
+        }
         final String serverName = PermissionUtil.getInstance().getServerName();
         if (serverName != null) {
             contexts.add(new Context("server", serverName));
@@ -61,6 +61,7 @@
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -70,6 +71,7 @@ public class FileStorage extends BaseStorage {
     public final static Path claimDataPath = Paths.get("GriefDefenderData", "ClaimData");
     public final static Path claimTemplatePath = claimDataPath.resolve("Templates");
     private final static Map<UUID, BukkitRunnable> cleanupClaimTasks = new HashMap<>();
+    private final static int MAX_OVERLAP_REPORT = 100;
     private final Path rootConfigPath = GriefDefenderPlugin.getInstance().getConfigPath().resolve("worlds");
     public static Path rootWorldSavePath;
     private int claimLoadCount = 0;
@@ -221,6 +223,9 @@ public void loadWorldData(World world) {
                 GriefDefenderPlugin.getInstance().getLogger().info("[" + worldName + "] " + this.claimLoadCount + " total claims loaded.");
             }
 
+            this.reportClaimOverlaps(claimWorldManager, worldName);
+            claimWorldManager.publishClaimIndexSnapshot();
+
             if (GriefDefenderPlugin.getGlobalConfig().getConfig().playerdata.useWorldPlayerData()) {
                 // migrate player data
                 PlayerDataMigrator.migrateWorld(world, newWorldDataPath.resolve("PlayerData"));
@@ -243,6 +248,24 @@ public void loadWorldData(World world) {
         this.claimLoadCount = 0;
     }
 
+    private void reportClaimOverlaps(GDClaimManager claimWorldManager, String worldName) {
+        final List<GDClaim[]> overlaps = claimWorldManager.findClaimOverlaps();
+        if (overlaps.isEmpty()) {
+            return;
+        }
+
+        GriefDefenderPlugin.getInstance().getLogger().warning("[" + worldName + "] Found " + overlaps.size() + " overlapping claim(s):");
+        int count = 0;
+        for (GDClaim[] overlap : overlaps) {
+            if (count++ == MAX_OVERLAP_REPORT) {
+                GriefDefenderPlugin.getInstance().getLogger().warning("... and " + (overlaps.size() - MAX_OVERLAP_REPORT) + " more.");
+                break;
+            }
+            GriefDefenderPlugin.getInstance().getLogger().warning(overlap[0].getUniqueId() + " " + overlap[0].lesserBoundaryCorner + " -> " + overlap[0].greaterBoundaryCorner
+                    + " overlaps " + overlap[1].getUniqueId() + " " + overlap[1].lesserBoundaryCorner + " -> " + overlap[1].greaterBoundaryCorner);
+        }
+    }
+
     public void unloadWorldData(World world) {
         GDClaimManager claimWorldManager = this.getClaimWorldManager(world.getUID());
         for (Claim claim : claimWorldManager.getWorldClaims()) {
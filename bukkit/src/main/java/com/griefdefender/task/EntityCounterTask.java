@@ -0,0 +1,53 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.task;
+
+import com.griefdefender.GDBootstrap;
+import com.griefdefender.GriefDefenderPlugin;
+import com.griefdefender.claim.GDClaimManager;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.scheduler.BukkitRunnable;
+
+public class EntityCounterTask extends BukkitRunnable {
+
+    // Claims visited per world each run
+    private static final int CLAIMS_PER_RUN = 4;
+
+    public EntityCounterTask() {
+        this.runTaskTimer(GDBootstrap.getInstance(), 20L, 5L);
+    }
+
+    @Override
+    public void run() {
+        for (World world : Bukkit.getServer().getWorlds()) {
+            final GDClaimManager claimWorldManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(world.getUID());
+            if (claimWorldManager != null && claimWorldManager.hasEntityCounters()) {
+                claimWorldManager.reconcileEntityCounters(CLAIMS_PER_RUN);
+            }
+        }
+    }
+}
@@ -38,6 +38,8 @@
 import com.griefdefender.claim.GDClaim;
 import com.griefdefender.permission.GDPermissionHolder;
 import com.griefdefender.permission.GDPermissions;
+import com.griefdefender.permission.flag.FlagContextIndex;
+import com.griefdefender.permission.flag.FlagDefaultTable;
 import com.griefdefender.provider.PermissionProvider;
 
 import net.kyori.text.adapter.bukkit.TextAdapter;
@@ -120,6 +122,7 @@ public boolean containsOverrideContext(Set<Context> contexts) {
 
     public void clearPermissions(GDClaim claim) {
         PERMISSION_PROVIDER.clearPermissions(claim);
+        this.invalidateDefaultHolderIndex();
     }
 
     public void clearPermissions(OfflinePlayer player, Context context) {
@@ -128,10 +131,12 @@ public void clearPermissions(OfflinePlayer player, Context context) {
 
     public void clearPermissions(GDPermissionHolder holder, Context context) {
         PERMISSION_PROVIDER.clearPermissions(holder, context);
+        this.invalidateDefaultHolderIndex();
     }
 
     public void clearPermissions(GDPermissionHolder holder, Set<Context> contexts) {
         PERMISSION_PROVIDER.clearPermissions(holder, contexts);
+        this.invalidateDefaultHolderIndex();
     }
 
     public boolean holderHasPermission(GDPermissionHolder holder, String permission) {
@@ -203,35 +208,52 @@ public List<String> getOptionValueList(GDPermissionHolder holder, Option option,
     }
 
     public PermissionResult setOptionValue(GDPermissionHolder holder, String permission, String value, Set<Context> contexts) {
-        return PERMISSION_PROVIDER.setOptionValue(holder, permission, value, contexts, true);
+        return this.setOptionValue(holder, permission, value, contexts, true);
     }
 
     public PermissionResult setOptionValue(GDPermissionHolder holder, String permission, String value, Set<Context> contexts, boolean check) {
-        return PERMISSION_PROVIDER.setOptionValue(holder, permission, value, contexts, check);
+        final PermissionResult result = PERMISSION_PROVIDER.setOptionValue(holder, permission, value, contexts, check);
+        PermissionHolderCache.getInstance().invalidateOptionCache(holder);
+        return result;
     }
 
     public PermissionResult setPermissionValue(GDPermissionHolder holder, Flag flag, Tristate value, Set<Context> contexts) {
-        return PERMISSION_PROVIDER.setPermissionValue(holder, flag, value, contexts, true, true);
+        final PermissionResult result = PERMISSION_PROVIDER.setPermissionValue(holder, flag, value, contexts, true, true);
+        this.invalidateDefaultHolderIndex();
+        return result;
     }
 
     public PermissionResult setPermissionValue(GDPermissionHolder holder, String permission, Tristate value, Set<Context> contexts) {
-        return PERMISSION_PROVIDER.setPermissionValue(holder, permission, value, contexts, true, true);
+        final PermissionResult result = PERMISSION_PROVIDER.setPermissionValue(holder, permission, value, contexts, true, true);
+        this.invalidateDefaultHolderIndex();
+        return result;
     }
 
     public PermissionResult setPermissionValue(GDPermissionHolder holder, Flag flag, Tristate value, Set<Context> contexts, boolean check, boolean save) {
-        return PERMISSION_PROVIDER.setPermissionValue(holder, flag, value, contexts, check, save);
+        final PermissionResult result = PERMISSION_PROVIDER.setPermissionValue(holder, flag, value, contexts, check, save);
+        this.invalidateDefaultHolderIndex();
+        return result;
     }
 
     public PermissionResult setPermissionValue(GDPermissionHolder holder, String permission, Tristate value, Set<Context> contexts, boolean check, boolean save) {
-        return PERMISSION_PROVIDER.setPermissionValue(holder, permission, value, contexts, check, save);
+        final PermissionResult result = PERMISSION_PROVIDER.setPermissionValue(holder, permission, value, contexts, check, save);
+        this.invalidateDefaultHolderIndex();
+        return result;
     }
 
     public void setTransientOption(GDPermissionHolder holder, String permission, String value, Set<Context> contexts) {
         PERMISSION_PROVIDER.setTransientOption(holder, permission, value, contexts);
+        PermissionHolderCache.getInstance().invalidateOptionCache(holder);
     }
 
     public void setTransientPermission(GDPermissionHolder holder, String permission, Boolean value, Set<Context> contexts) {
         PERMISSION_PROVIDER.setTransientPermission(holder, permission, value, contexts);
+        this.invalidateDefaultHolderIndex();
+    }
+
+    private void invalidateDefaultHolderIndex() {
+        FlagDefaultTable.getInstance().invalidatePermanentFlags();
+        FlagContextIndex.getInstance().invalidate();
     }
 
     public void refreshCachedData(GDPermissionHolder holder) {
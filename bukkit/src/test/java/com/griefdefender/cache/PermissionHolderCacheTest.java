@@ -0,0 +1,123 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.griefdefender.api.Tristate;
+import com.griefdefender.api.permission.Context;
+import com.griefdefender.permission.GDPermissionHolder;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class PermissionHolderCacheTest {
+
+    private static final String[] GROUPS = {"default", "admin", "moderator", "Aa", "BB"};
+    private static final String[] PERMISSIONS = {"griefdefender.flag.block-break", "griefdefender.flag.block-place", "Aa", "BB", "AaBB", "BBAa"};
+    private static final Context[] CONTEXTS = {
+            new Context("gd_claim_default", "global"), new Context("gd_claim_override", "global"), new Context("server", "global"),
+            new Context("world", "world"), new Context("Aa", "Aa"), new Context("BB", "BB")};
+    private static final Tristate[] RESULTS = {Tristate.TRUE, Tristate.FALSE, Tristate.UNDEFINED};
+
+    @Test
+    public void testConcurrentQueries() throws Exception {
+        final int threads = 8;
+        final PermissionHolderCache holderCache = PermissionHolderCache.getInstance();
+        final Map<String, GDPermissionHolder> holders = new ConcurrentHashMap<>();
+        final Map<GDPermissionHolder, Cache<PermissionQueryKey, Tristate>> permissionCaches = new ConcurrentHashMap<>();
+        final Map<Set<Context>, Set<Context>> contextSets = new ConcurrentHashMap<>();
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                final Random random = new Random(i);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < 100000; j++) {
+                        final String groupName = GROUPS[random.nextInt(GROUPS.length)];
+                        final GDPermissionHolder holder = holderCache.getOrCreateGroup(groupName);
+                        final GDPermissionHolder sharedHolder = holders.putIfAbsent(groupName, holder);
+                        assertSame(sharedHolder == null ? holder : sharedHolder, holder);
+
+                        final Cache<PermissionQueryKey, Tristate> cache = holderCache.getOrCreatePermissionCache(holder);
+                        final Cache<PermissionQueryKey, Tristate> sharedCache = permissionCaches.putIfAbsent(holder, cache);
+                        assertSame(sharedCache == null ? cache : sharedCache, cache);
+
+                        final String permission = PERMISSIONS[random.nextInt(PERMISSIONS.length)];
+                        final Set<Context> contexts = new HashSet<>();
+                        final Set<String> sortedContexts = new TreeSet<>();
+                        final int contextCount = random.nextInt(4);
+                        for (int k = 0; k < contextCount; k++) {
+                            final Context context = CONTEXTS[random.nextInt(CONTEXTS.length)];
+                            contexts.add(context);
+                            sortedContexts.add(context.getKey() + "=" + context.getValue());
+                        }
+
+                        final PermissionQueryKey key = holderCache.createPermissionQueryKey(null, holder, permission, contexts);
+                        final Set<Context> contextSet = holderCache.getOrCreateContextSet(contexts);
+                        final Set<Context> sharedContextSet = contextSets.putIfAbsent(contextSet, contextSet);
+                        assertSame(sharedContextSet == null ? contextSet : sharedContextSet, contextSet);
+
+                        final Tristate expected = getResult(groupName + "|" + permission + "|" + sortedContexts);
+                        Tristate result = cache.getIfPresent(key);
+                        if (result == null) {
+                            result = expected;
+                            cache.put(key.immutableCopy(), result);
+                        }
+                        assertEquals(expected, result);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                // Rethrows assertion failures of the worker threads
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Stands in for the permission provider, results differ between queries with colliding hash codes
+    private static Tristate getResult(String query) {
+        return RESULTS[Math.floorMod(new StringBuilder(query).reverse().toString().hashCode(), RESULTS.length)];
+    }
+}
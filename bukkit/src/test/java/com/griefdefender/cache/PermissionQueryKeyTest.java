@@ -0,0 +1,103 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import com.griefdefender.api.permission.Context;
+import com.griefdefender.permission.GDPermissionHolder;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+public class PermissionQueryKeyTest {
+
+    // "Aa" and "BB" have the same hash code, so do all strings combining them
+    private static final String[] PERMISSIONS = {
+            "griefdefender.flag.block-break", "griefdefender.flag.block-place", "griefdefender.flag.block-break.minecraft.stone",
+            "Aa", "BB", "AaAa", "AaBB", "BBAa", "BBBB"};
+    private static final String[] HOLDERS = {"default", "00000000-0000-0000-0000-000000000000", "group.admin", "Aa", "BB"};
+    private static final Context[] CONTEXTS = {
+            new Context("gd_claim", "9aa8d8a4-7cde-4bb7-8d0e-30cde0b7fbd6"), new Context("gd_claim", "5c4a9d8c-5f3a-46e0-a2e1-8aa1d1a2d1e0"),
+            new Context("gd_claim_default", "global"), new Context("gd_claim_override", "global"), new Context("server", "global"),
+            new Context("world", "world"), new Context("Aa", "Aa"), new Context("BB", "BB"), new Context("Aa", "BB"), new Context("BB", "Aa")};
+
+    @Test
+    public void testNoFalseHits() {
+        final Random random = new Random(1123L);
+        final GDPermissionHolder[] holders = new GDPermissionHolder[HOLDERS.length];
+        for (int i = 0; i < HOLDERS.length; i++) {
+            holders[i] = new GDPermissionHolder(HOLDERS[i]);
+        }
+
+        final Map<PermissionQueryKey, String> cache = new HashMap<>();
+        final Set<String> queries = new HashSet<>();
+        for (int i = 0; i < 1000000; i++) {
+            final int holderIndex = random.nextInt(holders.length);
+            final String permission = PERMISSIONS[random.nextInt(PERMISSIONS.length)];
+            final Set<Context> contexts = new HashSet<>();
+            final Set<String> sortedContexts = new TreeSet<>();
+            final int contextCount = random.nextInt(4);
+            for (int j = 0; j < contextCount; j++) {
+                final Context context = CONTEXTS[random.nextInt(CONTEXTS.length)];
+                contexts.add(context);
+                sortedContexts.add(context.getKey() + "=" + context.getValue());
+            }
+
+            final String query = holderIndex + "|" + permission + "|" + sortedContexts;
+            final String cachedQuery = cache.putIfAbsent(new PermissionQueryKey(null, holders[holderIndex], permission, contexts), query);
+            if (cachedQuery != null) {
+                assertEquals(query, cachedQuery);
+            }
+            queries.add(query);
+        }
+        // Equal queries must also share a key
+        assertEquals(queries.size(), cache.size());
+    }
+
+    @Test
+    public void testImmutableCopy() {
+        final GDPermissionHolder holder = new GDPermissionHolder(HOLDERS[0]);
+        final Set<Context> contexts = new HashSet<>();
+        contexts.add(CONTEXTS[0]);
+        final PermissionQueryKey key = new PermissionQueryKey(null, holder, PERMISSIONS[0], contexts);
+        final PermissionQueryKey storedKey = key.immutableCopy();
+        assertEquals(key, storedKey);
+        assertEquals(key.hashCode(), storedKey.hashCode());
+        assertSame(storedKey, storedKey.immutableCopy());
+
+        // Callers may modify their contexts once the key is stored
+        contexts.add(CONTEXTS[1]);
+        final Set<Context> originalContexts = new HashSet<>();
+        originalContexts.add(CONTEXTS[0]);
+        assertEquals(new PermissionQueryKey(null, holder, PERMISSIONS[0], originalContexts), storedKey);
+    }
+}
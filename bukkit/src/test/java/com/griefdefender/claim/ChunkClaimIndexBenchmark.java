@@ -0,0 +1,147 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.claim;
+
+import com.flowpowered.math.vector.Vector3i;
+import com.griefdefender.api.claim.Claim;
+import com.griefdefender.internal.util.BlockUtil;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares chunk lookups of {@link ChunkClaimIndex} and chunk hash refreshes
+ * of {@link GDClaim} with the boxed layout they replaced.
+ *
+ * <p>Run with {@code gradle jmh -Pjmh=ChunkClaimIndexBenchmark}. Add
+ * {@code -prof gc} to the JMH arguments to compare allocation rates.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkClaimIndexBenchmark {
+
+    private static final int SPREAD = 20000;
+    private static final int LOOKUPS = 4096;
+
+    @Param({"1000", "10000"})
+    public int claimCount;
+
+    private ChunkClaimIndex chunkIndex;
+    // Layout used before the primitive index, boxed chunk keys and hash set buckets
+    private Map<Long, Set<Claim>> boxedIndex;
+    private GDClaim[] claims;
+    private long[] chunkKeys;
+    private int next;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(1181L);
+        this.chunkIndex = new ChunkClaimIndex();
+        this.boxedIndex = new Long2ObjectOpenHashMap<>();
+        this.claims = new GDClaim[this.claimCount];
+        for (int i = 0; i < this.claimCount; i++) {
+            final int x = random.nextInt(2 * SPREAD) - SPREAD;
+            final int z = random.nextInt(2 * SPREAD) - SPREAD;
+            final GDClaim claim = new GDClaim(new Vector3i(x, 0, z), new Vector3i(x + random.nextInt(64), 255, z + random.nextInt(64)));
+            this.claims[i] = claim;
+            this.chunkIndex.add(claim);
+            for (long chunkHash : getBoxedChunkHashes(claim)) {
+                Set<Claim> claimsInChunk = this.boxedIndex.get(chunkHash);
+                if (claimsInChunk == null) {
+                    claimsInChunk = new HashSet<>();
+                    this.boxedIndex.put(chunkHash, claimsInChunk);
+                }
+                claimsInChunk.add(claim);
+            }
+        }
+
+        // Half of the lookups hit a claimed chunk
+        this.chunkKeys = new long[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            if (i % 2 == 0) {
+                final GDClaim claim = this.claims[random.nextInt(this.claimCount)];
+                this.chunkKeys[i] = BlockUtil.getInstance().asLong(claim.lesserBoundaryCorner.getX() >> 4, claim.lesserBoundaryCorner.getZ() >> 4);
+            } else {
+                this.chunkKeys[i] = BlockUtil.getInstance().asLong((random.nextInt(2 * SPREAD) - SPREAD) >> 4, (random.nextInt(2 * SPREAD) - SPREAD) >> 4);
+            }
+        }
+    }
+
+    @Benchmark
+    public GDClaim[] primitiveLookup() {
+        return this.chunkIndex.getClaims(this.chunkKeys[this.next++ & (LOOKUPS - 1)]);
+    }
+
+    @Benchmark
+    public Set<Claim> boxedLookup() {
+        return this.boxedIndex.get(this.chunkKeys[this.next++ & (LOOKUPS - 1)]);
+    }
+
+    // Refresh of an unchanged claim, as checkArea and doesClaimOverlap request
+    @Benchmark
+    public LongOpenHashSet primitiveChunkHashes() {
+        return this.claims[this.next++ % this.claimCount].getChunkHashes(true);
+    }
+
+    @Benchmark
+    public Set<Long> boxedChunkHashes() {
+        return getBoxedChunkHashes(this.claims[this.next++ % this.claimCount]);
+    }
+
+    // Chunk hashes as GDClaim built them on every refresh before
+    private static Set<Long> getBoxedChunkHashes(GDClaim claim) {
+        final Set<Long> chunkHashes = new HashSet<>();
+        final int smallX = claim.lesserBoundaryCorner.getX() >> 4;
+        final int smallZ = claim.lesserBoundaryCorner.getZ() >> 4;
+        final int largeX = claim.greaterBoundaryCorner.getX() >> 4;
+        final int largeZ = claim.greaterBoundaryCorner.getZ() >> 4;
+        for (int x = smallX; x <= largeX; x++) {
+            for (int z = smallZ; z <= largeZ; z++) {
+                chunkHashes.add(BlockUtil.getInstance().asLong(x, z));
+            }
+        }
+        return chunkHashes;
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.claim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.flowpowered.math.vector.Vector3i;
+import com.griefdefender.api.claim.Claim;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ClaimIndexSnapshotTest {
+
+    private static final int SPREAD = 5000;
+
+    @Test
+    public void testSnapshotIgnoresLaterChanges() {
+        final ClaimQuadTree claimTree = new ClaimQuadTree();
+        final GDClaim claim = createClaim(0, 0, 100, 100);
+        claimTree.add(claim);
+        final ClaimIndexSnapshot snapshot = new ClaimIndexSnapshot(1, claimTree.freeze(), null);
+
+        claim.lesserBoundaryCorner = new Vector3i(1000, 0, 1000);
+        claim.greaterBoundaryCorner = new Vector3i(1100, 255, 1100);
+        claimTree.add(claim);
+        claimTree.add(createClaim(-100, -100, -50, -50));
+
+        assertEquals(claim, snapshot.getClaimAt(new Vector3i(50, 64, 50)));
+        assertNull(snapshot.getClaimAt(new Vector3i(1050, 64, 1050)));
+        assertNull(snapshot.getClaimAt(new Vector3i(-75, 64, -75)));
+        assertEquals(1, snapshot.getWorldClaims().size());
+        assertEquals(claim, snapshot.getClaim(claim.getUniqueId()));
+    }
+
+    // Readers look up claims in published snapshots while the writer keeps changing the index,
+    // as permission checks off the main thread do through GDClaimManager#getClaimAt
+    @Test
+    public void testConcurrentLookups() throws Exception {
+        final ClaimQuadTree claimTree = new ClaimQuadTree();
+        final Map<GDClaim, int[]> bounds = new HashMap<>();
+        // Snapshot version -> claim bounds the snapshot was built from
+        final Map<Long, Map<GDClaim, int[]>> versions = new ConcurrentHashMap<>();
+        final AtomicReference<ClaimIndexSnapshot> published = new AtomicReference<>();
+        final Random random = new Random(4419L);
+        for (int i = 0; i < 500; i++) {
+            addRandomClaim(random, claimTree, bounds);
+        }
+        publish(0, claimTree, bounds, versions, published);
+
+        final int readers = 6;
+        final ExecutorService executor = Executors.newFixedThreadPool(readers);
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final List<Future<Integer>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < readers; i++) {
+                final long seed = i;
+                futures.add(executor.submit(() -> {
+                    final Random readerRandom = new Random(seed);
+                    start.await();
+                    int lookups = 0;
+                    while (running.get() || lookups < 10000) {
+                        final ClaimIndexSnapshot snapshot = published.get();
+                        final int x = readerRandom.nextInt(2 * SPREAD) - SPREAD;
+                        final int z = readerRandom.nextInt(2 * SPREAD) - SPREAD;
+                        final Claim claim = snapshot.getClaimAt(new Vector3i(x, 64, z));
+                        final Map<GDClaim, int[]> snapshotBounds = versions.get(snapshot.getVersion());
+                        assertNotNull(snapshotBounds);
+                        if (claim == null) {
+                            for (int[] claimBounds : snapshotBounds.values()) {
+                                assertFalse(contains(claimBounds, x, z));
+                            }
+                        } else {
+                            assertTrue(contains(snapshotBounds.get(claim), x, z));
+                        }
+                        lookups++;
+                    }
+                    return lookups;
+                }));
+            }
+
+            start.countDown();
+            for (long version = 1; version <= 500; version++) {
+                // a batch of changes, then a new snapshot as GDClaimManager publishes on the next tick
+                for (int i = 0; i < 10; i++) {
+                    final List<GDClaim> claims = new ArrayList<>(bounds.keySet());
+                    final GDClaim claim = claims.get(random.nextInt(claims.size()));
+                    switch (random.nextInt(3)) {
+                        case 0:
+                            claimTree.remove(claim);
+                            bounds.remove(claim);
+                            addRandomClaim(random, claimTree, bounds);
+                            break;
+                        case 1:
+                            final int x = random.nextInt(2 * SPREAD) - SPREAD;
+                            final int z = random.nextInt(2 * SPREAD) - SPREAD;
+                            claim.lesserBoundaryCorner = new Vector3i(x, 0, z);
+                            claim.greaterBoundaryCorner = new Vector3i(x + random.nextInt(400), 255, z + random.nextInt(400));
+                            claimTree.add(claim);
+                            bounds.put(claim, getBounds(claim));
+                            break;
+                        default:
+                            addRandomClaim(random, claimTree, bounds);
+                            break;
+                    }
+                }
+                publish(version, claimTree, bounds, versions, published);
+            }
+            running.set(false);
+            for (Future<Integer> future : futures) {
+                // Rethrows assertion failures of the reader threads
+                assertTrue(future.get(1, TimeUnit.MINUTES) >= 10000);
+            }
+        } finally {
+            running.set(false);
+            executor.shutdownNow();
+        }
+    }
+
+    private static void publish(long version, ClaimQuadTree claimTree, Map<GDClaim, int[]> bounds, Map<Long, Map<GDClaim, int[]>> versions,
+            AtomicReference<ClaimIndexSnapshot> published) {
+        versions.put(version, new HashMap<>(bounds));
+        published.set(new ClaimIndexSnapshot(version, claimTree.freeze(), null));
+    }
+
+    private static void addRandomClaim(Random random, ClaimQuadTree claimTree, Map<GDClaim, int[]> bounds) {
+        final int x = random.nextInt(2 * SPREAD) - SPREAD;
+        final int z = random.nextInt(2 * SPREAD) - SPREAD;
+        final GDClaim claim = createClaim(x, z, x + random.nextInt(400), z + random.nextInt(400));
+        claimTree.add(claim);
+        bounds.put(claim, getBounds(claim));
+    }
+
+    private static GDClaim createClaim(int minX, int minZ, int maxX, int maxZ) {
+        return new GDClaim(new Vector3i(minX, 0, minZ), new Vector3i(maxX, 255, maxZ));
+    }
+
+    private static int[] getBounds(GDClaim claim) {
+        return new int[] {claim.lesserBoundaryCorner.getX(), claim.lesserBoundaryCorner.getZ(), claim.greaterBoundaryCorner.getX(),
+                claim.greaterBoundaryCorner.getZ()};
+    }
+
+    private static boolean contains(int[] bounds, int x, int z) {
+        return x >= bounds[0] && x <= bounds[2] && z >= bounds[1] && z <= bounds[3];
+    }
+}
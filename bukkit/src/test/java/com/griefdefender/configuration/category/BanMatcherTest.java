@@ -0,0 +1,190 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.configuration.category;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import net.kyori.text.Component;
+import net.kyori.text.TextComponent;
+import org.apache.commons.io.FilenameUtils;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class BanMatcherTest {
+
+    private static final String[] IDS = {"minecraft:stone", "minecraft:wool", "minecraft:wool:3", "minecraft:wool:13", "modid:block", "modid:block:1", "modid2:block", "modid:"};
+
+    @Test
+    public void testExactMatch() {
+        final Map<String, Component> bans = new LinkedHashMap<>();
+        final Component reason = TextComponent.of("stone");
+        bans.put("minecraft:stone", reason);
+        final BanMatcher matcher = new BanMatcher(bans, bans::get, true);
+
+        assertSame(reason, matcher.getReason("minecraft:stone"));
+        assertNull(matcher.getReason("minecraft:stone2"));
+        assertNull(matcher.getReason("minecraft:ston"));
+        assertNull(matcher.getReason("minecraft:dirt"));
+    }
+
+    @Test
+    public void testNamespaceMatch() {
+        final Map<String, Component> bans = new LinkedHashMap<>();
+        final Component reason = TextComponent.of("modid");
+        bans.put("modid:*", reason);
+        final BanMatcher matcher = new BanMatcher(bans, bans::get, true);
+
+        assertSame(reason, matcher.getReason("modid:block"));
+        assertSame(reason, matcher.getReason("modid:block:1"));
+        assertNull(matcher.getReason("modid2:block"));
+        assertNull(matcher.getReason("minecraft:block"));
+    }
+
+    @Test
+    public void testMetaMatch() {
+        final Map<String, Component> bans = new LinkedHashMap<>();
+        final Component anyMeta = TextComponent.of("any meta");
+        final Component singleDigitMeta = TextComponent.of("single digit meta");
+        bans.put("minecraft:wool:*", anyMeta);
+        bans.put("minecraft:stone:?", singleDigitMeta);
+        final BanMatcher matcher = new BanMatcher(bans, bans::get, true);
+
+        assertSame(anyMeta, matcher.getReason("minecraft:wool:3"));
+        assertSame(anyMeta, matcher.getReason("minecraft:wool:13"));
+        assertNull(matcher.getReason("minecraft:wool"));
+        assertSame(singleDigitMeta, matcher.getReason("minecraft:stone:1"));
+        assertNull(matcher.getReason("minecraft:stone:12"));
+        assertNull(matcher.getReason("minecraft:stone"));
+    }
+
+    @Test
+    public void testFirstMatchWins() {
+        final Component wildcard = TextComponent.of("wildcard");
+        final Component exact = TextComponent.of("exact");
+        final Map<String, Component> bans = new LinkedHashMap<>();
+        bans.put("modid:*", wildcard);
+        bans.put("modid:block", exact);
+        assertSame(wildcard, new BanMatcher(bans, bans::get, true).getReason("modid:block"));
+
+        bans.clear();
+        bans.put("modid:block", exact);
+        bans.put("modid:*", wildcard);
+        assertSame(exact, new BanMatcher(bans, bans::get, true).getReason("modid:block"));
+    }
+
+    @Test
+    public void testLastMatchWins() {
+        final Component wildcard = TextComponent.of("wildcard");
+        final Component exact = TextComponent.of("exact");
+        final Map<String, Component> bans = new LinkedHashMap<>();
+        bans.put("modid:*", wildcard);
+        bans.put("modid:block", exact);
+        assertSame(exact, new BanMatcher(bans, bans::get, false).getReason("modid:block"));
+
+        bans.clear();
+        bans.put("modid:block", exact);
+        bans.put("modid:*", wildcard);
+        assertSame(wildcard, new BanMatcher(bans, bans::get, false).getReason("modid:block"));
+    }
+
+    @Test
+    public void testInvalidAfterMapChange() {
+        final Map<String, Component> bans = new LinkedHashMap<>();
+        bans.put("minecraft:stone", TextComponent.of("stone"));
+        final BanMatcher matcher = new BanMatcher(bans, bans::get, true);
+
+        assertTrue(matcher.isValid(bans));
+        assertFalse(matcher.isValid(new LinkedHashMap<>(bans)));
+        bans.put("minecraft:dirt", TextComponent.of("dirt"));
+        assertFalse(matcher.isValid(bans));
+        bans.remove("minecraft:dirt");
+        assertTrue(matcher.isValid(bans));
+        bans.remove("minecraft:stone");
+        bans.put("minecraft:dirt", TextComponent.of("dirt"));
+        assertFalse(matcher.isValid(bans));
+    }
+
+    @Test
+    public void testReasonReadAtMatch() {
+        final Map<String, Component> bans = new LinkedHashMap<>();
+        bans.put("modid:*", TextComponent.of("modid"));
+        final BanMatcher matcher = new BanMatcher(bans, bans::get, true);
+        final Component reason = TextComponent.of("changed");
+        bans.put("modid:*", reason);
+
+        assertTrue(matcher.isValid(bans));
+        assertSame(reason, matcher.getReason("modid:block"));
+    }
+
+    @Test
+    public void testMatchesLinearScan() {
+        final Random random = new Random(2741L);
+        for (int i = 0; i < 2000; i++) {
+            final Map<String, Component> bans = new LinkedHashMap<>();
+            final int size = random.nextInt(8);
+            for (int j = 0; j < size; j++) {
+                bans.put(randomBanId(random), TextComponent.of(String.valueOf(j)));
+            }
+
+            final boolean firstMatchWins = random.nextBoolean();
+            final BanMatcher matcher = new BanMatcher(bans, bans::get, firstMatchWins);
+            for (String id : IDS) {
+                assertEquals(bans + " " + id, linearScan(bans, id, firstMatchWins), matcher.getReason(id));
+            }
+        }
+    }
+
+    // Behavior the matcher replaces
+    private static Component linearScan(Map<String, Component> bans, String id, boolean firstMatchWins) {
+        Component reason = null;
+        for (Map.Entry<String, Component> mapEntry : bans.entrySet()) {
+            if (FilenameUtils.wildcardMatch(id, mapEntry.getKey())) {
+                reason = mapEntry.getValue();
+                if (firstMatchWins) {
+                    break;
+                }
+            }
+        }
+        return reason;
+    }
+
+    private static String randomBanId(Random random) {
+        final StringBuilder builder = new StringBuilder(IDS[random.nextInt(IDS.length)]);
+        if (random.nextInt(3) == 0) {
+            builder.setLength(random.nextInt(builder.length() + 1));
+            builder.append(random.nextBoolean() ? '*' : '?');
+        } else if (random.nextInt(3) == 0 && builder.length() > 0) {
+            builder.setCharAt(random.nextInt(builder.length()), '?');
+        }
+        return builder.toString();
+    }
+}
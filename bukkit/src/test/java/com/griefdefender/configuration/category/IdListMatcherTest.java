@@ -0,0 +1,145 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.configuration.category;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.commons.io.FilenameUtils;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class IdListMatcherTest {
+
+    private static final String[] IDS = {"minecraft:stone", "minecraft:wool", "minecraft:wool:3", "minecraft:wool:13", "modid:block", "modid:block:1", "modid2:block", "modid:"};
+
+    @Test
+    public void testExactMatch() {
+        final IdListMatcher matcher = new IdListMatcher(Arrays.asList("minecraft:stone", "modid:block"));
+
+        assertTrue(matcher.matches("minecraft:stone"));
+        assertTrue(matcher.matches("modid:block"));
+        assertFalse(matcher.matches("minecraft:stone2"));
+        assertFalse(matcher.matches("minecraft:ston"));
+        assertFalse(matcher.matches("modid:block:1"));
+    }
+
+    @Test
+    public void testNamespaceMatch() {
+        final IdListMatcher matcher = new IdListMatcher(Arrays.asList("modid:*"));
+
+        assertTrue(matcher.matches("modid:block"));
+        assertTrue(matcher.matches("modid:block:1"));
+        assertFalse(matcher.matches("modid2:block"));
+        assertFalse(matcher.matches("minecraft:block"));
+    }
+
+    @Test
+    public void testMetaMatch() {
+        final IdListMatcher matcher = new IdListMatcher(Arrays.asList("minecraft:wool:*", "minecraft:stone:?"));
+
+        assertTrue(matcher.matches("minecraft:wool:3"));
+        assertTrue(matcher.matches("minecraft:wool:13"));
+        assertFalse(matcher.matches("minecraft:wool"));
+        assertTrue(matcher.matches("minecraft:stone:1"));
+        assertFalse(matcher.matches("minecraft:stone:12"));
+        assertFalse(matcher.matches("minecraft:stone"));
+    }
+
+    @Test
+    public void testNullIdsIgnored() {
+        final IdListMatcher matcher = new IdListMatcher(Arrays.asList(null, "minecraft:stone"));
+
+        assertTrue(matcher.matches("minecraft:stone"));
+        assertFalse(matcher.matches("minecraft:dirt"));
+    }
+
+    @Test
+    public void testInvalidAfterListChange() {
+        final List<String> ids = new ArrayList<>();
+        ids.add("minecraft:stone");
+        final IdListMatcher matcher = new IdListMatcher(ids);
+
+        assertTrue(matcher.isValid(ids));
+        assertFalse(matcher.isValid(new ArrayList<>(ids)));
+        ids.add("minecraft:dirt");
+        assertFalse(matcher.isValid(ids));
+    }
+
+    @Test
+    public void testInvalidAfterInPlaceSet() {
+        final List<String> ids = new ArrayList<>();
+        ids.add("minecraft:stone");
+        final IdListMatcher matcher = new IdListMatcher(ids);
+
+        ids.set(0, "minecraft:dirt");
+        assertFalse(matcher.isValid(ids));
+        ids.set(0, "minecraft:stone");
+        assertTrue(matcher.isValid(ids));
+    }
+
+    @Test
+    public void testMatchesLinearScan() {
+        final Random random = new Random(9127L);
+        for (int i = 0; i < 2000; i++) {
+            final List<String> ids = new ArrayList<>();
+            final int size = random.nextInt(8);
+            for (int j = 0; j < size; j++) {
+                ids.add(randomListId(random));
+            }
+
+            final IdListMatcher matcher = new IdListMatcher(ids);
+            for (String id : IDS) {
+                assertEquals(ids + " " + id, linearScan(ids, id), matcher.matches(id));
+            }
+        }
+    }
+
+    // Behavior the matcher replaces
+    private static boolean linearScan(List<String> ids, String id) {
+        for (String str : ids) {
+            if (FilenameUtils.wildcardMatch(id, str)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String randomListId(Random random) {
+        final StringBuilder builder = new StringBuilder(IDS[random.nextInt(IDS.length)]);
+        if (random.nextInt(3) == 0) {
+            builder.setLength(random.nextInt(builder.length() + 1));
+            builder.append(random.nextBoolean() ? '*' : '?');
+        } else if (random.nextInt(3) == 0 && builder.length() > 0) {
+            builder.setCharAt(random.nextInt(builder.length()), '?');
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.permission;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class PermissionEvaluationTest {
+
+    @Test
+    public void testNestedCheck() {
+        final PermissionEvaluation outer = PermissionEvaluation.begin();
+        outer.eventSourceId = "outer";
+        final PermissionEvaluation inner = PermissionEvaluation.begin();
+        assertSame(inner, PermissionEvaluation.current());
+        assertEquals("none", inner.eventSourceId);
+        inner.eventSourceId = "inner";
+
+        PermissionEvaluation.end(inner);
+        assertSame(outer, PermissionEvaluation.current());
+        assertEquals("outer", outer.eventSourceId);
+        assertTrue(outer.inProgress);
+
+        PermissionEvaluation.end(outer);
+        // A completed top level check stays readable
+        assertSame(outer, PermissionEvaluation.current());
+        assertFalse(outer.inProgress);
+    }
+
+    @Test
+    public void testConcurrentNestedChecks() throws Exception {
+        final int threads = 8;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                final String threadId = String.valueOf(i);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < 100000; j++) {
+                        runCheck(threadId + ":" + j, j % 4);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                // Rethrows assertion failures of the worker threads
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Runs a check with the given amount of checks nested inside it
+    private static void runCheck(String id, int depth) {
+        final PermissionEvaluation evaluation = PermissionEvaluation.begin();
+        evaluation.eventSourceId = id;
+        try {
+            if (depth > 0) {
+                runCheck(id + "/" + depth, depth - 1);
+            }
+            assertSame(evaluation, PermissionEvaluation.current());
+            assertEquals(id, evaluation.eventSourceId);
+        } finally {
+            PermissionEvaluation.end(evaluation);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.permission;
+
+import static org.junit.Assert.assertEquals;
+
+import com.griefdefender.api.Tristate;
+import org.apache.commons.io.FilenameUtils;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class WildcardPermissionMapTest {
+
+    private static final String[] SEGMENTS = {"griefdefender", "flag", "block-break", "block-place", "minecraft", "stone", "modid", "a", "ab", ""};
+
+    @Test
+    public void testExactKeys() {
+        final Map<String, Boolean> permissions = new LinkedHashMap<>();
+        permissions.put("griefdefender.flag.block-break", true);
+        permissions.put("griefdefender.flag.block-place", false);
+        final WildcardPermissionMap map = new WildcardPermissionMap(permissions);
+
+        assertEquals(Tristate.TRUE, map.getValue("griefdefender.flag.block-break"));
+        assertEquals(Tristate.FALSE, map.getValue("griefdefender.flag.block-place"));
+        assertEquals(Tristate.UNDEFINED, map.getValue("griefdefender.flag.block-break.minecraft"));
+        assertEquals(Tristate.UNDEFINED, map.getValue("griefdefender.flag"));
+    }
+
+    @Test
+    public void testFirstMatchWins() {
+        final Map<String, Boolean> permissions = new LinkedHashMap<>();
+        permissions.put("griefdefender.flag.*", false);
+        permissions.put("griefdefender.flag.block-break.*", true);
+        permissions.put("griefdefender.flag.block-break.minecraft.stone", true);
+        final WildcardPermissionMap map = new WildcardPermissionMap(permissions);
+
+        assertEquals(Tristate.FALSE, map.getValue("griefdefender.flag.block-break.minecraft.stone"));
+        assertEquals(Tristate.UNDEFINED, map.getValue("griefdefender.flag"));
+    }
+
+    @Test
+    public void testInteriorWildcards() {
+        final Map<String, Boolean> permissions = new LinkedHashMap<>();
+        permissions.put("griefdefender.flag.block-?reak.minecraft.*", true);
+        permissions.put("griefdefender.*.block-place", false);
+        final WildcardPermissionMap map = new WildcardPermissionMap(permissions);
+
+        assertEquals(Tristate.TRUE, map.getValue("griefdefender.flag.block-break.minecraft.stone"));
+        assertEquals(Tristate.FALSE, map.getValue("griefdefender.flag.block-place"));
+        assertEquals(Tristate.UNDEFINED, map.getValue("griefdefender.flag.block-break.modid.stone"));
+    }
+
+    @Test
+    public void testMatchesLinearScan() {
+        final Random random = new Random(5132L);
+        for (int i = 0; i < 2000; i++) {
+            final Map<String, Boolean> permissions = new LinkedHashMap<>();
+            final int size = random.nextInt(12);
+            for (int j = 0; j < size; j++) {
+                permissions.put(randomKey(random), random.nextBoolean());
+            }
+
+            final WildcardPermissionMap map = new WildcardPermissionMap(permissions);
+            for (int j = 0; j < 50; j++) {
+                final String permission = randomPermission(random);
+                assertEquals(permissions + " " + permission, linearScan(permissions, permission), map.getValue(permission));
+            }
+        }
+    }
+
+    // Behavior the map replaces
+    private static Tristate linearScan(Map<String, Boolean> permissions, String permission) {
+        for (Map.Entry<String, Boolean> mapEntry : permissions.entrySet()) {
+            if (FilenameUtils.wildcardMatch(permission, mapEntry.getKey())) {
+                return Tristate.fromBoolean(mapEntry.getValue());
+            }
+        }
+        return Tristate.UNDEFINED;
+    }
+
+    private static String randomPermission(Random random) {
+        final StringBuilder builder = new StringBuilder();
+        final int segments = 1 + random.nextInt(5);
+        for (int i = 0; i < segments; i++) {
+            if (i > 0) {
+                builder.append('.');
+            }
+            builder.append(SEGMENTS[random.nextInt(SEGMENTS.length)]);
+        }
+        return builder.toString();
+    }
+
+    private static String randomKey(Random random) {
+        final StringBuilder builder = new StringBuilder(randomPermission(random));
+        final int wildcards = random.nextInt(3);
+        for (int i = 0; i < wildcards; i++) {
+            final char wildcard = random.nextBoolean() ? '*' : '?';
+            switch (random.nextInt(3)) {
+                case 0:
+                    builder.append(wildcard);
+                    break;
+                case 1:
+                    builder.append('.').append(wildcard);
+                    break;
+                default:
+                    if (builder.length() == 0) {
+                        builder.append(wildcard);
+                    } else {
+                        builder.setCharAt(random.nextInt(builder.length()), wildcard);
+                    }
+                    break;
+            }
+        }
+        return builder.toString();
+    }
+}